@@ -40,27 +40,23 @@ import net.minecraftforge.entity.PartEntity;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
-import net.minecraftforge.network.PacketDistributor;
+import twilightforest.entity.MultipartGrid;
 import twilightforest.entity.TFEntities;
 import twilightforest.entity.TFPart;
 import twilightforest.item.TFItems;
-import twilightforest.network.TFPacketHandler;
-import twilightforest.network.UpdateTFMultipartPacket;
+import twilightforest.network.MultipartSync;
 import twilightforest.world.components.structures.start.TFStructureStart;
 import twilightforest.world.registration.TFDimensions;
 import twilightforest.world.registration.TFGenerationSettings;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.WeakHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 @SuppressWarnings({"JavadocReference", "unused", "RedundantSuppression", "deprecation"})
 public class ASMHooks {
@@ -135,30 +131,25 @@ public class ASMHooks {
 		return music;
 	}
 
-	private static final WeakHashMap<Level, List<TFPart<?>>> cache = new WeakHashMap<>();
 	private static final Int2ObjectMap<TFPart<?>> multiparts = new Int2ObjectOpenHashMap<>();
 
 	// This only works on the client side in 1.17...
 	public static void registerMultipartEvents(IEventBus bus) {
 		bus.addListener((Consumer<EntityJoinWorldEvent>) event -> {
-			if(event.getWorld().isClientSide() && event.getEntity().isMultipartEntity())
-			synchronized (cache) {
-				cache.computeIfAbsent(event.getWorld(), (w) -> new ArrayList<>());
-				cache.get(event.getWorld()).addAll(Arrays.stream(Objects.requireNonNull(event.getEntity().getParts())).
-						filter(TFPart.class::isInstance).map(obj -> (TFPart<?>) obj).
-						collect(Collectors.toList()));
-
+			if(event.getWorld().isClientSide() && event.getEntity().isMultipartEntity()) {
+				MultipartGrid grid = MultipartGrid.get(event.getWorld());
+				for (PartEntity<?> part : Objects.requireNonNull(event.getEntity().getParts()))
+					if (part instanceof TFPart<?> tfPart)
+						grid.add(tfPart);
 			}
 		});
 		bus.addListener((Consumer<EntityLeaveWorldEvent>) event -> {
-			if(event.getWorld().isClientSide() && event.getEntity().isMultipartEntity())
-			synchronized (cache) {
-				cache.computeIfPresent(event.getWorld(), (world, list) -> {
-					list.removeAll(Arrays.stream(Objects.requireNonNull(event.getEntity().getParts())).
-							filter(TFPart.class::isInstance).map(obj -> (TFPart<?>) obj).
-							collect(Collectors.toList()));
-					return list;
-				});
+			if(event.getWorld().isClientSide() && event.getEntity().isMultipartEntity()) {
+				MultipartGrid grid = MultipartGrid.getIfPresent(event.getWorld());
+				if (grid != null)
+					for (PartEntity<?> part : Objects.requireNonNull(event.getEntity().getParts()))
+						if (part instanceof TFPart<?> tfPart)
+							grid.remove(tfPart);
 			}
 		});
 	}
@@ -170,13 +161,12 @@ public class ASMHooks {
 	 */
 	public static void trackingStart(Entity entity) {
 		if (entity.isMultipartEntity()) {
-			List<TFPart<?>> list = Arrays.stream(Objects.requireNonNull(entity.getParts())).
-					filter(TFPart.class::isInstance).map(obj -> (TFPart<?>) obj).
-					collect(Collectors.toList());
-			list.forEach(part -> multiparts.put(part.getId(), part));
-			synchronized (cache) {
-				cache.computeIfAbsent(entity.level, (w) -> new ArrayList<>());
-				cache.get(entity.level).addAll(list);
+			MultipartGrid grid = MultipartGrid.get(entity.level);
+			for (PartEntity<?> part : Objects.requireNonNull(entity.getParts())) {
+				if (part instanceof TFPart<?> tfPart) {
+					multiparts.put(tfPart.getId(), tfPart);
+					grid.add(tfPart);
+				}
 			}
 		}
 	}
@@ -188,15 +178,14 @@ public class ASMHooks {
 	 */
 	public static void trackingEnd(Entity entity) {
 		if (entity.isMultipartEntity()) {
-			List<TFPart<?>> list = Arrays.stream(Objects.requireNonNull(entity.getParts())).
-					filter(TFPart.class::isInstance).map(obj -> (TFPart<?>) obj).
-					collect(Collectors.toList());
-			list.forEach(part -> multiparts.remove(part.getId()));
-			synchronized (cache) {
-				cache.computeIfPresent(entity.level, (world, parts) -> {
-					parts.removeAll(list);
-					return parts;
-				});
+			MultipartSync.forget(entity);
+			MultipartGrid grid = MultipartGrid.getIfPresent(entity.level);
+			for (PartEntity<?> part : Objects.requireNonNull(entity.getParts())) {
+				if (part instanceof TFPart<?> tfPart) {
+					multiparts.remove(tfPart.getId());
+					if (grid != null)
+						grid.remove(tfPart);
+				}
 			}
 		}
 	}
@@ -206,23 +195,11 @@ public class ASMHooks {
 	 * {@link net.minecraft.world.level.Level#getEntities(Entity, AABB, Predicate)}<br>
 	 * [BEFORE ARETURN]
 	 */
-	public static synchronized List<Entity> multipartHitbox(List<Entity> list, Level world, @Nullable Entity entityIn, AABB boundingBox, @Nullable Predicate<? super Entity> predicate) {
-		synchronized (cache) {
-			List<TFPart<?>> parts = cache.get(world);
-			if(parts != null) {
-				for (TFPart<?> part : parts) {
-					if (part != entityIn &&
-
-							part.getBoundingBox().intersects(boundingBox) &&
-
-							(predicate == null || predicate.test(part)) &&
-
-							!list.contains(part))
-						list.add(part);
-				}
-			}
-			return list;
-		}
+	public static List<Entity> multipartHitbox(List<Entity> list, Level world, @Nullable Entity entityIn, AABB boundingBox, @Nullable Predicate<? super Entity> predicate) {
+		MultipartGrid grid = MultipartGrid.getIfPresent(world);
+		if (grid != null)
+			grid.collect(list, entityIn, boundingBox, predicate);
+		return list;
 	}
 
 	/**
@@ -241,7 +218,7 @@ public class ASMHooks {
 	 */
 	public static Entity updateMultiparts(Entity entity) {
 		if (entity.isMultipartEntity())
-			TFPacketHandler.CHANNEL.send(PacketDistributor.TRACKING_ENTITY.with(() -> entity), new UpdateTFMultipartPacket(entity));
+			MultipartSync.queue(entity);
 		return entity;
 	}
 
@@ -97,6 +97,7 @@ import twilightforest.util.TFItemStackUtils;
 import twilightforest.util.TFStats;
 import twilightforest.util.WorldUtil;
 import twilightforest.world.components.chunkgenerators.ChunkGeneratorTwilight;
+import twilightforest.world.registration.ProtectedAreaCache;
 import twilightforest.world.registration.TFFeature;
 import twilightforest.world.registration.TFGenerationSettings;
 
@@ -771,29 +772,31 @@ public class TFEventListener {
 
 
 		if (chunkGenerator != null) {
-			Optional<StructureStart> struct = TFGenerationSettings.locateTFStructureInRange((ServerLevel) world, pos, 0);
-			if(struct.isPresent()) {
-				StructureStart structure = struct.get();
-				if(structure.getBoundingBox().isInside(pos)) {
-					// what feature is nearby?  is it one the player has not unlocked?
-					TFFeature nearbyFeature = TFFeature.getFeatureAt(pos.getX(), pos.getZ(), (ServerLevel) world);
+			ProtectedAreaCache.Area area = ProtectedAreaCache.get(player, pos);
+			if (area == null) {
+				Optional<StructureStart> struct = TFGenerationSettings.locateTFStructureInRange((ServerLevel) world, pos, 0);
+				if (struct.isEmpty() || !struct.get().getBoundingBox().isInside(pos))
+					return false;
+
+				// what feature is nearby?  is it one the player has not unlocked?
+				TFFeature nearbyFeature = TFFeature.getFeatureAt(pos.getX(), pos.getZ(), (ServerLevel) world);
+				area = ProtectedAreaCache.put(player, struct.get().getBoundingBox(), nearbyFeature);
+			}
 
-					if (!nearbyFeature.doesPlayerHaveRequiredAdvancements(player)/* && chunkGenerator.isBlockProtected(pos)*/) {
+			if (!area.getFeature().doesPlayerHaveRequiredAdvancements(player)/* && chunkGenerator.isBlockProtected(pos)*/) {
 
-						// TODO: This is terrible but *works* for now.. proper solution is to figure out why the stronghold bounding box is going so high
-						if (nearbyFeature == TFFeature.KNIGHT_STRONGHOLD && pos.getY() >= TFGenerationSettings.SEALEVEL)
-							return false;
+				// TODO: This is terrible but *works* for now.. proper solution is to figure out why the stronghold bounding box is going so high
+				if (area.getFeature() == TFFeature.KNIGHT_STRONGHOLD && pos.getY() >= TFGenerationSettings.SEALEVEL)
+					return false;
 
-						// send protection packet
-						BoundingBox bb = structure.getBoundingBox();//new MutableBoundingBox(pos, pos.add(16, 16, 16)); // todo 1.15 get from structure
-						sendAreaProtectionPacket(world, pos, bb);
+				// send protection packet, once in a while is enough to keep the box up
+				if (area.tryResetPacketCooldown(world.getGameTime()))
+					sendAreaProtectionPacket(world, pos, area.getBox());
 
-						// send a hint monster?
-						nearbyFeature.trySpawnHintMonster(world, player, pos);
+				// send a hint monster?
+				area.getFeature().trySpawnHintMonster(world, player, pos);
 
-						return true;
-					}
-				}
+				return true;
 			}
 		}
 		return false;
@@ -847,10 +850,16 @@ public class TFEventListener {
 				sendEnforcedProgressionStatus((ServerPlayer) event.getPlayer(), TFGenerationSettings.isProgressionEnforced(player.getLevel()));
 			}
 
+			ProtectedAreaCache.invalidate(player);
 			updateCapabilities(player, event.getPlayer());
 		}
 	}
 
+	@SubscribeEvent
+	public static void playerLogsOut(PlayerEvent.PlayerLoggedOutEvent event) {
+		ProtectedAreaCache.invalidate(event.getPlayer());
+	}
+
 	@SubscribeEvent
 	public static void onStartTracking(PlayerEvent.StartTracking event) {
 		updateCapabilities((ServerPlayer) event.getPlayer(), event.getTarget());
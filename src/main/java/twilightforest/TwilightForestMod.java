@@ -116,6 +116,7 @@ public class TwilightForestMod {
 		modbus.addGenericListener(StructureFeature.class, TFStructures::register);
 		TFBiomeFeatures.FEATURES.register(modbus);
 		TFContainers.CONTAINERS.register(modbus);
+		TFPoiTypes.POI_TYPES.register(modbus);
 		TFEnchantments.ENCHANTMENTS.register(modbus);
 		TwilightFeatures.TREE_DECORATORS.register(modbus);
 		TwilightFeatures.FOLIAGE_PLACERS.register(modbus);
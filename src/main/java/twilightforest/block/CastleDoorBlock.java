@@ -6,7 +6,6 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.block.state.properties.BooleanProperty;
 import net.minecraft.world.level.block.state.StateDefinition;
 import net.minecraft.world.InteractionResult;
-import net.minecraft.core.Direction;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.level.material.PushReaction;
@@ -26,7 +25,7 @@ import twilightforest.world.components.chunkgenerators.ChunkGeneratorTwilight;
 
 import java.util.Random;
 
-public class CastleDoorBlock extends Block {
+public class CastleDoorBlock extends Block implements VanishingWaves.WaveBlock {
 
 	public static final BooleanProperty ACTIVE = BooleanProperty.create("active");
 	public static final BooleanProperty VANISHED = BooleanProperty.create("vanish");
@@ -89,10 +88,11 @@ public class CastleDoorBlock extends Block {
 	}
 
 	private static void changeToActiveBlock(Level world, BlockPos pos, BlockState originState) {
-		if (originState.getBlock() instanceof CastleDoorBlock) {
+		if (world instanceof ServerLevel level) {
+			VanishingWaves.activate(level, pos, originState);
+		} else {
 			world.setBlockAndUpdate(pos, originState.setValue(ACTIVE, true));
 		}
-		world.scheduleTick(pos, originState.getBlock(), 2 + world.random.nextInt(5));
 	}
 
 	private static boolean isBlockLocked(Level world, BlockPos pos) {
@@ -107,47 +107,53 @@ public class CastleDoorBlock extends Block {
 	@Override
 	@Deprecated
 	public void tick(BlockState state, ServerLevel world, BlockPos pos, Random random) {
+		// only left over from before a save, the wave runs everything else
+		VanishingWaves.tick(world, pos);
+	}
+
+	@Override
+	public boolean canActivate(ServerLevel level, BlockPos pos, BlockState state) {
+		return state.getBlock() instanceof CastleDoorBlock && !state.getValue(VANISHED) && !state.getValue(ACTIVE) && !isBlockLocked(level, pos);
+	}
+
+	@Override
+	public BlockState getActivatedState(BlockState state) {
+		return state.setValue(ACTIVE, true);
+	}
+
+	@Override
+	public int advance(ServerLevel world, BlockPos pos, BlockState state, VanishingWaves.Batch batch) {
+		int delay = -1;
 		if (state.getValue(VANISHED)) {
 			if (state.getValue(ACTIVE)) {
-				world.setBlockAndUpdate(pos, state.setValue(VANISHED, false).setValue(ACTIVE, false));
+				batch.setBlock(pos, state.setValue(VANISHED, false).setValue(ACTIVE, false));
 			} else {
-				changeToActiveBlock(world, pos, state);
+				batch.setBlock(pos, state.setValue(ACTIVE, true));
+				delay = getActivationDelay(world.random);
 			}
-			playReappearSound(world, pos);
+			playReappearSound(world, pos, batch);
 		} else {
 			if (state.getValue(ACTIVE)) {
-				world.setBlockAndUpdate(pos, state.setValue(VANISHED, true).setValue(ACTIVE, false));
-				world.scheduleTick(pos, this, 80);
+				batch.setBlock(pos, state.setValue(VANISHED, true).setValue(ACTIVE, false));
+				delay = 80;
 
-				playVanishSound(world, pos);
+				playVanishSound(world, pos, batch);
 
 				vanishParticles(world, pos);
 
 				// activate all adjacent inactive doors
-				for (Direction e : Direction.values()) {
-					checkAndActivateCastleDoor(world, pos.relative(e));
-				}
+				batch.spread(pos);
 			}
 		}
+		return delay;
 	}
 
-	private static void playVanishSound(Level world, BlockPos pos) {
-		world.playSound(null, pos, TFSounds.DOOR_VANISH, SoundSource.BLOCKS, 0.125f, world.random.nextFloat() * 0.25F + 1.75F);
-	}
-
-	private static void playReappearSound(Level world, BlockPos pos) {
-		world.playSound(null, pos, TFSounds.DOOR_REAPPEAR, SoundSource.BLOCKS, 0.125f, world.random.nextFloat() * 0.25F + 1.25F);
+	private static void playVanishSound(Level world, BlockPos pos, VanishingWaves.Batch batch) {
+		batch.playSound(pos, TFSounds.DOOR_VANISH, 0.125f, world.random.nextFloat() * 0.25F + 1.75F);
 	}
 
-	/**
-	 * If the targeted block is a vanishing block, activate it
-	 */
-	public static void checkAndActivateCastleDoor(Level world, BlockPos pos) {
-		BlockState state = world.getBlockState(pos);
-
-		if (state.getBlock() instanceof CastleDoorBlock && !state.getValue(VANISHED) && !state.getValue(ACTIVE) && !isBlockLocked(world, pos)) {
-			changeToActiveBlock(world, pos, state);
-		}
+	private static void playReappearSound(Level world, BlockPos pos, VanishingWaves.Batch batch) {
+		batch.playSound(pos, TFSounds.DOOR_REAPPEAR, 0.125f, world.random.nextFloat() * 0.25F + 1.25F);
 	}
 
 	private static void vanishParticles(Level world, BlockPos pos) {
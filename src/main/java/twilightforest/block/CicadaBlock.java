@@ -6,8 +6,6 @@ import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelAccessor;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.item.TooltipFlag;
 import net.minecraft.world.item.ItemStack;
@@ -23,7 +21,6 @@ import net.minecraftforge.fml.ModList;
 import twilightforest.TFSounds;
 import twilightforest.TwilightForestMod;
 import twilightforest.block.entity.CicadaBlockEntity;
-import twilightforest.block.entity.TFBlockEntities;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -43,12 +40,6 @@ public class CicadaBlock extends CritterBlock {
 		return new CicadaBlockEntity(pos, state);
 	}
 
-	@Nullable
-	@Override
-	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-		return createTickerHelper(type, TFBlockEntities.CICADA.get(), CicadaBlockEntity::tick);
-	}
-
 	@Override
 	public ItemStack getSquishResult() {
 		return new ItemStack(Items.GRAY_DYE, 1);
@@ -2,14 +2,11 @@ package twilightforest.block;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import twilightforest.block.entity.FireflyBlockEntity;
-import twilightforest.block.entity.TFBlockEntities;
 
 import javax.annotation.Nullable;
 
@@ -27,12 +24,6 @@ public class FireflyBlock extends CritterBlock {
 		return new FireflyBlockEntity(pos, state);
 	}
 
-	@Nullable
-	@Override
-	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-		return createTickerHelper(type, TFBlockEntities.FIREFLY.get(), FireflyBlockEntity::tick);
-	}
-
 	@Override
 	public ItemStack getSquishResult() {
 		return new ItemStack(Items.GLOWSTONE_DUST);
@@ -2,14 +2,11 @@ package twilightforest.block;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import twilightforest.block.entity.MoonwormBlockEntity;
-import twilightforest.block.entity.TFBlockEntities;
 
 import javax.annotation.Nullable;
 
@@ -32,12 +29,6 @@ public class MoonwormBlock extends CritterBlock {
 		return new MoonwormBlockEntity(pos, state);
 	}
 
-	@Nullable
-	@Override
-	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-		return createTickerHelper(type, TFBlockEntities.MOONWORM.get(), MoonwormBlockEntity::tick);
-	}
-
 	@Override
 	public ItemStack getSquishResult() {
 		return new ItemStack(Items.LIME_DYE, 1);
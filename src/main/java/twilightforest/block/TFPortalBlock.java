@@ -277,6 +277,10 @@ public class TFPortalBlock extends HalfTransparentBlock implements LiquidBlockCo
 		if(serverWorld == null)
 			return;
 
+		// let the other side load in the background first, anything still standing in the portal will try again next tick
+		if (!forcedEntry && !TFTeleporter.prepareDestination(serverWorld, entity.blockPosition()))
+			return;
+
 		entity.changeDimension(serverWorld, makeReturnPortal ? new TFTeleporter(forcedEntry) : new NoReturnTeleporter());
 
 		if (destination ==  ResourceKey.create(Registry.DIMENSION_REGISTRY, new ResourceLocation(TFConfig.COMMON_CONFIG.DIMENSION.portalDestinationID.get())) && entity instanceof ServerPlayer && forcedEntry) {
@@ -37,7 +37,7 @@ import java.util.*;
  * @see ReappearingBlock , It is only separated from this class because vanilla does
  * not like having blockstate properties be conditionally registered.
  */
-public class VanishingBlock extends Block {
+public class VanishingBlock extends Block implements VanishingWaves.WaveBlock {
 	public static final BooleanProperty ACTIVE = BooleanProperty.create("active");
 	public static final BooleanProperty VANISHED = BooleanProperty.create("vanished");
 	private static final VoxelShape VANISHED_SHAPE = box(6, 6, 6, 10, 10, 10);
@@ -135,34 +135,45 @@ public class VanishingBlock extends Block {
 	@Override
 	@Deprecated
 	public void tick(BlockState state, ServerLevel world, BlockPos pos, Random random) {
-		if (world.isClientSide) {
-			return;
-		}
+		// only left over from before a save, the wave runs everything else
+		VanishingWaves.tick(world, pos);
+	}
+
+	@Override
+	public boolean canActivate(ServerLevel level, BlockPos pos, BlockState state) {
+		return state.getBlock() instanceof VanishingBlock && !isVanished(state) && !state.getValue(ACTIVE);
+	}
 
+	@Override
+	public BlockState getActivatedState(BlockState state) {
+		return state.setValue(ACTIVE, true);
+	}
+
+	@Override
+	public int advance(ServerLevel world, BlockPos pos, BlockState state, VanishingWaves.Batch batch) {
+		int delay = -1;
 		if (isVanished(state)) {
 			if (state.getValue(ACTIVE)) {
-				world.setBlockAndUpdate(pos, state.setValue(VANISHED, false).setValue(ACTIVE, false));
+				batch.setBlock(pos, state.setValue(VANISHED, false).setValue(ACTIVE, false));
 			} else {
-				world.setBlockAndUpdate(pos, state.setValue(ACTIVE, true));
-				world.scheduleTick(pos, this, 15);
+				batch.setBlock(pos, state.setValue(ACTIVE, true));
+				delay = 15;
 			}
-			world.playSound(null, pos, TFSounds.REAPPEAR_BLOCK, SoundSource.BLOCKS, 0.3F, 0.6F);
+			batch.playSound(pos, TFSounds.REAPPEAR_BLOCK, 0.3F, 0.6F);
 		} else {
 			if (state.getValue(ACTIVE)) {
 				if (state.hasProperty(VANISHED)) {
-					world.setBlockAndUpdate(pos, state.setValue(ACTIVE, false).setValue(VANISHED, true));
-					world.scheduleTick(pos, this, 80);
+					batch.setBlock(pos, state.setValue(ACTIVE, false).setValue(VANISHED, true));
+					delay = 80;
 				} else {
-					world.removeBlock(pos, false);
+					batch.setBlock(pos, world.getFluidState(pos).createLegacyBlock());
 				}
 
-				world.playSound(null, pos, state.getBlock() == TFBlocks.REAPPEARING_BLOCK.get() ? TFSounds.REAPPEAR_POOF : TFSounds.VANISHING_BLOCK, SoundSource.BLOCKS, 0.3F, 0.5F);
-
-				for (Direction e : Direction.values()) {
-					activate(world, pos.relative(e));
-				}
+				batch.playSound(pos, state.getBlock() == TFBlocks.REAPPEARING_BLOCK.get() ? TFSounds.REAPPEAR_POOF : TFSounds.VANISHING_BLOCK, 0.3F, 0.5F);
+				batch.spread(pos);
 			}
 		}
+		return delay;
 	}
 
 	@Override
@@ -218,9 +229,10 @@ public class VanishingBlock extends Block {
 
 	private void activate(Level world, BlockPos pos) {
 		BlockState state = world.getBlockState(pos);
-		if (state.getBlock() instanceof VanishingBlock && !isVanished(state) && !state.getValue(ACTIVE)) {
+		if (world instanceof ServerLevel level) {
+			VanishingWaves.activate(level, pos, state);
+		} else {
 			world.setBlockAndUpdate(pos, state.setValue(ACTIVE, true));
-			world.scheduleTick(pos, state.getBlock(), 2 + world.random.nextInt(5));
 		}
 	}
 }
@@ -0,0 +1,311 @@
+package twilightforest.block;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectRBTreeMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectSortedMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.sounds.SoundEvent;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import twilightforest.TwilightForestMod;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runs the waves of vanishing blocks and castle doors. A wave finds the blocks it can reach with one flood fill when it's
+ * set off, and every block changing on the same tick is handled in one go: states are set without neighbour updates
+ * inside the group, so they reach clients as section updates, and each sound plays once per tick at the middle of the
+ * blocks making it. Each block still keeps its own delays, so the wave looks the same as when every block had its own
+ * scheduled ticks.
+ * <p>
+ * Steps only live in memory. Whenever the level saves, or a chunk unloads, the steps affected are handed back to vanilla
+ * as scheduled ticks, which pick the wave up again from the block's state.
+ */
+@Mod.EventBusSubscriber(modid = TwilightForestMod.ID)
+public class VanishingWaves {
+	private static final Map<ServerLevel, VanishingWaves> WAVES = new Reference2ObjectOpenHashMap<>();
+	// Bigger than anything in our structures, larger groups just get split into more than one wave
+	private static final int MAX_GROUP = 4096;
+
+	private final ServerLevel level;
+	private final Long2ObjectSortedMap<List<Step>> steps = new Long2ObjectRBTreeMap<>();
+
+	private VanishingWaves(ServerLevel level) {
+		this.level = level;
+	}
+
+	private static VanishingWaves get(ServerLevel level) {
+		return WAVES.computeIfAbsent(level, VanishingWaves::new);
+	}
+
+	/**
+	 * Sets off the block and the connected blocks it can spread to. The block has to be able to be set off.
+	 */
+	public static void activate(ServerLevel level, BlockPos pos, BlockState state) {
+		VanishingWaves waves = get(level);
+		Batch batch = new Batch(level);
+		waves.activate(batch, pos.immutable(), state, findGroup(level, pos, (WaveBlock) state.getBlock()));
+		batch.finish();
+	}
+
+	/**
+	 * For scheduled ticks left over from a save, moves the block on a stage and lets the wave take it from there.
+	 */
+	public static void tick(ServerLevel level, BlockPos pos) {
+		VanishingWaves waves = get(level);
+		Batch batch = new Batch(level);
+		waves.advance(batch, new Step(pos.immutable(), null));
+		batch.finish();
+	}
+
+	@SubscribeEvent
+	public static void tickWaves(TickEvent.WorldTickEvent event) {
+		if (event.phase == TickEvent.Phase.END && event.world instanceof ServerLevel level) {
+			VanishingWaves waves = WAVES.get(level);
+			if (waves != null)
+				waves.run();
+		}
+	}
+
+	@SubscribeEvent
+	public static void saveWaves(WorldEvent.Save event) {
+		if (event.getWorld() instanceof ServerLevel level) {
+			VanishingWaves waves = WAVES.get(level);
+			if (waves != null)
+				waves.handOver(null);
+		}
+	}
+
+	@SubscribeEvent
+	public static void unloadChunk(ChunkEvent.Unload event) {
+		if (event.getWorld() instanceof ServerLevel level) {
+			VanishingWaves waves = WAVES.get(level);
+			if (waves != null)
+				waves.handOver(event.getChunk().getPos());
+		}
+	}
+
+	@SubscribeEvent
+	public static void unloadLevel(WorldEvent.Unload event) {
+		if (event.getWorld() instanceof ServerLevel level)
+			WAVES.remove(level);
+	}
+
+	private void run() {
+		long now = this.level.getGameTime();
+		if (this.steps.isEmpty() || this.steps.firstLongKey() > now)
+			return;
+
+		Batch batch = new Batch(this.level);
+		while (!this.steps.isEmpty() && this.steps.firstLongKey() <= now) {
+			List<Step> due = this.steps.remove(this.steps.firstLongKey());
+			for (Step step : due) {
+				if (this.level.shouldTickBlocksAt(ChunkPos.asLong(step.pos)))
+					this.advance(batch, step);
+				else if (this.level.isLoaded(step.pos))
+					this.level.scheduleTick(step.pos, this.level.getBlockState(step.pos).getBlock(), 1);
+			}
+		}
+		batch.finish();
+		if (this.steps.isEmpty())
+			WAVES.remove(this.level);
+	}
+
+	private void advance(Batch batch, Step step) {
+		BlockState state = this.level.getBlockState(step.pos);
+		// anything could have happened to it in the meantime
+		if (!(state.getBlock() instanceof WaveBlock block))
+			return;
+
+		batch.group = step.group;
+		int delay = block.advance(this.level, step.pos, state, batch);
+		if (delay >= 0)
+			this.schedule(step.pos, delay, step.group);
+
+		for (BlockPos next : batch.spreadFrom) {
+			for (Direction direction : Direction.values()) {
+				BlockPos neighbor = next.relative(direction);
+				BlockState neighborState = this.level.getBlockState(neighbor);
+				if (block.canActivate(this.level, neighbor, neighborState)) {
+					LongSet group = step.group != null && step.group.contains(neighbor.asLong()) ? step.group : findGroup(this.level, neighbor, block);
+					this.activate(batch, neighbor, neighborState, group);
+				}
+			}
+		}
+		batch.spreadFrom.clear();
+	}
+
+	private void activate(Batch batch, BlockPos pos, BlockState state, LongSet group) {
+		WaveBlock block = (WaveBlock) state.getBlock();
+		batch.group = group;
+		batch.setBlock(pos, block.getActivatedState(state));
+		this.schedule(pos, block.getActivationDelay(this.level.random), group);
+	}
+
+	private void schedule(BlockPos pos, int delay, @Nullable LongSet group) {
+		this.steps.computeIfAbsent(this.level.getGameTime() + delay, time -> new ArrayList<>()).add(new Step(pos, group));
+	}
+
+	/**
+	 * Turns the steps in the chunk, or all of them, into scheduled ticks.
+	 */
+	private void handOver(@Nullable ChunkPos chunk) {
+		long now = this.level.getGameTime();
+		for (Iterator<Long2ObjectSortedMap.Entry<List<Step>>> iterator = this.steps.long2ObjectEntrySet().iterator(); iterator.hasNext(); ) {
+			Long2ObjectSortedMap.Entry<List<Step>> entry = iterator.next();
+			int delay = (int) Math.max(1, entry.getLongKey() - now);
+			entry.getValue().removeIf(step -> {
+				if (chunk != null && (step.pos.getX() >> 4 != chunk.x || step.pos.getZ() >> 4 != chunk.z))
+					return false;
+				this.level.scheduleTick(step.pos, this.level.getBlockState(step.pos).getBlock(), delay);
+				return true;
+			});
+			if (entry.getValue().isEmpty())
+				iterator.remove();
+		}
+	}
+
+	private static LongSet findGroup(ServerLevel level, BlockPos start, WaveBlock block) {
+		LongSet group = new LongOpenHashSet();
+		LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		group.add(start.asLong());
+		queue.enqueue(start.asLong());
+
+		while (!queue.isEmpty() && group.size() < MAX_GROUP) {
+			long current = queue.dequeueLong();
+			for (Direction direction : Direction.values()) {
+				pos.set(current).move(direction);
+				long neighbor = pos.asLong();
+				if (!group.contains(neighbor) && level.isLoaded(pos) && block.canActivate(level, pos, level.getBlockState(pos))) {
+					group.add(neighbor);
+					queue.enqueue(neighbor);
+				}
+			}
+		}
+		return group;
+	}
+
+	/**
+	 * A block that vanishes and reappears in waves.
+	 */
+	public interface WaveBlock {
+		/**
+		 * @return true if a wave of this block can set off the state
+		 */
+		boolean canActivate(ServerLevel level, BlockPos pos, BlockState state);
+
+		BlockState getActivatedState(BlockState state);
+
+		/**
+		 * @return ticks between being set off and vanishing
+		 */
+		default int getActivationDelay(Random random) {
+			return 2 + random.nextInt(5);
+		}
+
+		/**
+		 * Moves the block on to its next stage through the batch.
+		 *
+		 * @return ticks until the next stage, or -1 once the block is back at rest
+		 */
+		int advance(ServerLevel level, BlockPos pos, BlockState state, Batch batch);
+	}
+
+	/**
+	 * Everything changing during one tick.
+	 */
+	public static final class Batch {
+		private final ServerLevel level;
+		private final List<Change> changes = new ArrayList<>();
+		private final Reference2ObjectMap<SoundEvent, Sound> sounds = new Reference2ObjectLinkedOpenHashMap<>();
+		private final List<BlockPos> spreadFrom = new ArrayList<>(1);
+		@Nullable
+		private LongSet group;
+
+		private Batch(ServerLevel level) {
+			this.level = level;
+		}
+
+		public void setBlock(BlockPos pos, BlockState state) {
+			Block block = this.level.getBlockState(pos).getBlock();
+			if (this.level.setBlock(pos, state, Block.UPDATE_CLIENTS))
+				this.changes.add(new Change(pos, block, this.group));
+		}
+
+		/**
+		 * Plays the sound once for the whole batch, at the middle of everywhere it was asked for. Volume and pitch are
+		 * the first ones given.
+		 */
+		public void playSound(BlockPos pos, SoundEvent sound, float volume, float pitch) {
+			this.sounds.computeIfAbsent(sound, s -> new Sound(volume, pitch)).add(pos);
+		}
+
+		/**
+		 * Sets off the blocks next to the position.
+		 */
+		public void spread(BlockPos pos) {
+			this.spreadFrom.add(pos);
+		}
+
+		private void finish() {
+			// blocks in the same group are told what they need by the wave itself
+			for (Change change : this.changes) {
+				for (Direction direction : Direction.values()) {
+					BlockPos neighbor = change.pos.relative(direction);
+					if (change.group == null || !change.group.contains(neighbor.asLong()))
+						this.level.neighborChanged(neighbor, change.block, change.pos);
+				}
+			}
+
+			for (Reference2ObjectMap.Entry<SoundEvent, Sound> entry : this.sounds.reference2ObjectEntrySet()) {
+				Sound sound = entry.getValue();
+				this.level.playSound(null, sound.x / sound.count + 0.5D, sound.y / sound.count + 0.5D, sound.z / sound.count + 0.5D, entry.getKey(), SoundSource.BLOCKS, sound.volume, sound.pitch);
+			}
+		}
+	}
+
+	private record Step(BlockPos pos, @Nullable LongSet group) {
+	}
+
+	private record Change(BlockPos pos, Block block, @Nullable LongSet group) {
+	}
+
+	private static class Sound {
+		private final float volume;
+		private final float pitch;
+		private double x, y, z;
+		private int count;
+
+		private Sound(float volume, float pitch) {
+			this.volume = volume;
+			this.pitch = pitch;
+		}
+
+		private void add(BlockPos pos) {
+			this.x += pos.getX();
+			this.y += pos.getY();
+			this.z += pos.getZ();
+			this.count++;
+		}
+	}
+}
@@ -0,0 +1,347 @@
+package twilightforest.block.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import twilightforest.TFConfig;
+import twilightforest.TFSounds;
+import twilightforest.TwilightForestMod;
+import twilightforest.client.particle.TFParticleType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runs the idle animations of every firefly, cicada and moonworm in a client level, instead of each of them ticking on
+ * its own. Critters are kept per chunk section in plain arrays. Sections out of render distance are skipped, and the
+ * players close enough for fireflies to sparkle are looked up once per section.
+ */
+@Mod.EventBusSubscriber(modid = TwilightForestMod.ID, value = Dist.CLIENT)
+public class CritterAnimations {
+	static final int FIREFLY = 0;
+	static final int CICADA = 1;
+	static final int MOONWORM = 2;
+
+	private static final double SPARKLE_RANGE = 16.0D;
+	// the critters hold on to their level, so levels have to be let go of when they unload
+	private static final Map<Level, CritterAnimations> LEVELS = new Reference2ObjectOpenHashMap<>();
+
+	private final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
+	private final List<Player> nearbyPlayers = new ArrayList<>();
+
+	static void add(Level level, CritterBlockEntity critter) {
+		if (critter.section != null)
+			return;
+		long key = SectionPos.asLong(critter.getBlockPos());
+		LEVELS.computeIfAbsent(level, l -> new CritterAnimations()).sections.computeIfAbsent(key, Section::new).add(critter, level.random);
+	}
+
+	static void remove(CritterBlockEntity critter) {
+		Section section = critter.section;
+		if (section == null)
+			return;
+		section.remove(critter.index);
+		if (section.size == 0 && critter.getLevel() != null) {
+			CritterAnimations animations = LEVELS.get(critter.getLevel());
+			if (animations != null)
+				animations.sections.remove(section.key);
+		}
+	}
+
+	/**
+	 * Moves every critter within render distance of the camera on by a tick.
+	 */
+	public static void tick(Level level, BlockPos camera, int renderDistance) {
+		CritterAnimations animations = LEVELS.get(level);
+		if (animations == null)
+			return;
+
+		int cameraX = SectionPos.blockToSectionCoord(camera.getX());
+		int cameraZ = SectionPos.blockToSectionCoord(camera.getZ());
+		for (Section section : animations.sections.values()) {
+			if (Math.abs(SectionPos.x(section.key) - cameraX) > renderDistance || Math.abs(SectionPos.z(section.key) - cameraZ) > renderDistance)
+				continue;
+
+			animations.findPlayersNear(level, section);
+			section.tick(level, animations.nearbyPlayers);
+		}
+	}
+
+	@SubscribeEvent
+	public static void unloadLevel(WorldEvent.Unload event) {
+		if (event.getWorld() instanceof Level level && level.isClientSide())
+			LEVELS.remove(level);
+	}
+
+	/**
+	 * @return every section of the level with critters in it
+	 */
+	public static Collection<Section> getSections(Level level) {
+		CritterAnimations animations = LEVELS.get(level);
+		return animations != null ? animations.sections.values() : List.of();
+	}
+
+	private void findPlayersNear(Level level, Section section) {
+		this.nearbyPlayers.clear();
+		if (section.fireflies == 0)
+			return;
+
+		double minX = SectionPos.sectionToBlockCoord(SectionPos.x(section.key)) - SPARKLE_RANGE;
+		double minY = SectionPos.sectionToBlockCoord(SectionPos.y(section.key)) - SPARKLE_RANGE;
+		double minZ = SectionPos.sectionToBlockCoord(SectionPos.z(section.key)) - SPARKLE_RANGE;
+		double max = 16.0D + SPARKLE_RANGE * 2.0D;
+		for (Player player : level.players()) {
+			if (!player.isSpectator() && player.getX() >= minX && player.getX() <= minX + max && player.getY() >= minY && player.getY() <= minY + max && player.getZ() >= minZ && player.getZ() <= minZ + max)
+				this.nearbyPlayers.add(player);
+		}
+	}
+
+	public static final class Section {
+		private final long key;
+		private int size;
+		private int fireflies;
+		// bumped whenever a critter comes or goes, or a firefly or cicada turns
+		private int version;
+
+		private CritterBlockEntity[] critters = new CritterBlockEntity[4];
+		private int[] kind = new int[4];
+		private int[] x = new int[4];
+		private int[] y = new int[4];
+		private int[] z = new int[4];
+		int[] yawDelay = new int[4];
+		int[] currentYaw = new int[4];
+		int[] desiredYaw = new int[4];
+		// glow delay for fireflies, sing delay for cicadas
+		private int[] delay = new int[4];
+		private int[] singDuration = new int[4];
+		// glowing for fireflies, singing for cicadas
+		private boolean[] active = new boolean[4];
+		float[] glowIntensity = new float[4];
+
+		private Section(long key) {
+			this.key = key;
+		}
+
+		public long getKey() {
+			return this.key;
+		}
+
+		public int size() {
+			return this.size;
+		}
+
+		public int getVersion() {
+			return this.version;
+		}
+
+		public CritterBlockEntity getCritter(int i) {
+			return this.critters[i];
+		}
+
+		private void add(CritterBlockEntity critter, Random random) {
+			if (this.size == this.critters.length)
+				this.grow();
+
+			int i = this.size++;
+			BlockPos pos = critter.getBlockPos();
+			this.critters[i] = critter;
+			this.kind[i] = critter.kind;
+			this.x[i] = pos.getX();
+			this.y[i] = pos.getY();
+			this.z[i] = pos.getZ();
+			this.yawDelay[i] = 0;
+			this.currentYaw[i] = critter.kind == MOONWORM ? random.nextInt(4) * 90 : 0;
+			this.desiredYaw[i] = 0;
+			this.delay[i] = 0;
+			this.singDuration[i] = 0;
+			this.active[i] = false;
+			this.glowIntensity[i] = 0.0F;
+			if (critter.kind == FIREFLY)
+				this.fireflies++;
+
+			critter.section = this;
+			critter.index = i;
+			this.version++;
+		}
+
+		private void remove(int i) {
+			CritterBlockEntity critter = this.critters[i];
+			critter.section = null;
+			if (critter.kind == FIREFLY)
+				this.fireflies--;
+
+			int last = --this.size;
+			if (i != last) {
+				this.critters[i] = this.critters[last];
+				this.kind[i] = this.kind[last];
+				this.x[i] = this.x[last];
+				this.y[i] = this.y[last];
+				this.z[i] = this.z[last];
+				this.yawDelay[i] = this.yawDelay[last];
+				this.currentYaw[i] = this.currentYaw[last];
+				this.desiredYaw[i] = this.desiredYaw[last];
+				this.delay[i] = this.delay[last];
+				this.singDuration[i] = this.singDuration[last];
+				this.active[i] = this.active[last];
+				this.glowIntensity[i] = this.glowIntensity[last];
+				this.critters[i].index = i;
+			}
+			this.critters[last] = null;
+			this.version++;
+		}
+
+		private void grow() {
+			int length = this.critters.length * 2;
+			this.critters = Arrays.copyOf(this.critters, length);
+			this.kind = Arrays.copyOf(this.kind, length);
+			this.x = Arrays.copyOf(this.x, length);
+			this.y = Arrays.copyOf(this.y, length);
+			this.z = Arrays.copyOf(this.z, length);
+			this.yawDelay = Arrays.copyOf(this.yawDelay, length);
+			this.currentYaw = Arrays.copyOf(this.currentYaw, length);
+			this.desiredYaw = Arrays.copyOf(this.desiredYaw, length);
+			this.delay = Arrays.copyOf(this.delay, length);
+			this.singDuration = Arrays.copyOf(this.singDuration, length);
+			this.active = Arrays.copyOf(this.active, length);
+			this.glowIntensity = Arrays.copyOf(this.glowIntensity, length);
+		}
+
+		private void tick(Level level, List<Player> nearbyPlayers) {
+			Random random = level.random;
+			for (int i = 0; i < this.size; i++) {
+				switch (this.kind[i]) {
+					case FIREFLY -> {
+						if (!nearbyPlayers.isEmpty() && this.isPlayerInRange(i, nearbyPlayers) && random.nextInt(20) == 0) {
+							level.addParticle(TFParticleType.FIREFLY.get(), this.x[i] + random.nextFloat(), this.y[i] + random.nextFloat(), this.z[i] + random.nextFloat(), 0, 0, 0);
+						}
+						this.tickYaw(i, random);
+						this.tickGlow(i, random);
+					}
+					case CICADA -> {
+						this.tickYaw(i, random);
+						this.tickSong(i, level, random);
+					}
+					case MOONWORM -> this.tickRotation(i, random);
+				}
+			}
+		}
+
+		private boolean isPlayerInRange(int i, List<Player> nearbyPlayers) {
+			for (Player player : nearbyPlayers) {
+				if (player.distanceToSqr(this.x[i] + 0.5D, this.y[i] + 0.5D, this.z[i] + 0.5D) < SPARKLE_RANGE * SPARKLE_RANGE)
+					return true;
+			}
+			return false;
+		}
+
+		private void tickYaw(int i, Random random) {
+			if (this.yawDelay[i] > 0) {
+				this.yawDelay[i]--;
+				return;
+			}
+
+			if (this.currentYaw[i] == 0 && this.desiredYaw[i] == 0) {
+				// make it rotate!
+				this.yawDelay[i] = 200 + random.nextInt(200);
+				this.desiredYaw[i] = random.nextInt(15) - random.nextInt(15);
+			}
+
+			if (this.currentYaw[i] < this.desiredYaw[i]) {
+				this.currentYaw[i]++;
+				this.version++;
+			}
+			if (this.currentYaw[i] > this.desiredYaw[i]) {
+				this.currentYaw[i]--;
+				this.version++;
+			}
+			if (this.currentYaw[i] == this.desiredYaw[i]) {
+				this.desiredYaw[i] = 0;
+			}
+		}
+
+		private void tickRotation(int i, Random random) {
+			if (this.yawDelay[i] > 0) {
+				this.yawDelay[i]--;
+				return;
+			}
+
+			if (this.desiredYaw[i] == 0) {
+				// make it rotate!
+				this.yawDelay[i] = 200 + random.nextInt(200);
+				this.desiredYaw[i] = random.nextInt(4) * 90;
+			}
+
+			this.currentYaw[i]++;
+
+			if (this.currentYaw[i] > 360) {
+				this.currentYaw[i] = 0;
+			}
+
+			if (this.currentYaw[i] == this.desiredYaw[i]) {
+				this.desiredYaw[i] = 0;
+			}
+		}
+
+		private void tickGlow(int i, Random random) {
+			if (this.delay[i] > 0) {
+				this.delay[i]--;
+				return;
+			}
+
+			if (this.active[i] && this.glowIntensity[i] >= 1.0) {
+				this.active[i] = false;
+			}
+			if (this.active[i] && this.glowIntensity[i] < 1.0) {
+				this.glowIntensity[i] += 0.05;
+			}
+			if (!this.active[i] && this.glowIntensity[i] > 0) {
+				this.glowIntensity[i] -= 0.05;
+			}
+			if (!this.active[i] && this.glowIntensity[i] <= 0) {
+				this.active[i] = true;
+				this.delay[i] = random.nextInt(50);
+			}
+		}
+
+		private void tickSong(int i, Level level, Random random) {
+			if (this.delay[i] > 0) {
+				this.delay[i]--;
+				return;
+			}
+
+			if (this.active[i] && this.singDuration[i] == 0) {
+				if (!TFConfig.CLIENT_CONFIG.silentCicadas.get()) {
+					level.playLocalSound(this.x[i], this.y[i], this.z[i], TFSounds.CICADA, SoundSource.NEUTRAL, 1.0f, (random.nextFloat() - random.nextFloat()) * 0.2F + 1.0F, false);
+				}
+			}
+			if (this.active[i] && this.singDuration[i] >= 100) {
+				this.active[i] = false;
+				this.singDuration[i] = 0;
+			}
+			if (this.active[i] && this.singDuration[i] < 100) {
+				this.singDuration[i]++;
+				if (random.nextInt(5) == 0) {
+					level.addParticle(ParticleTypes.NOTE, this.x[i] + random.nextFloat(), this.y[i] + random.nextFloat(), this.z[i] + random.nextFloat(), 0.0D, 0.0D, 0.0D);
+				}
+			}
+			if (!this.active[i] && this.singDuration[i] <= 0) {
+				this.active[i] = true;
+				this.delay[i] = 100 + random.nextInt(100);
+			}
+		}
+	}
+}
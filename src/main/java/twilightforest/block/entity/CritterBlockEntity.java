@@ -0,0 +1,61 @@
+package twilightforest.block.entity;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.state.BlockState;
+
+import javax.annotation.Nullable;
+
+/**
+ * A critter whose animation is run by {@link CritterAnimations} on the client, it doesn't tick on its own.
+ */
+public abstract class CritterBlockEntity extends BlockEntity {
+	final int kind;
+	@Nullable
+	CritterAnimations.Section section;
+	int index;
+
+	protected CritterBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state, int kind) {
+		super(type, pos, state);
+		this.kind = kind;
+	}
+
+	@Override
+	public void onLoad() {
+		super.onLoad();
+		if (this.level != null && this.level.isClientSide)
+			CritterAnimations.add(this.level, this);
+	}
+
+	@Override
+	public void onChunkUnloaded() {
+		super.onChunkUnloaded();
+		CritterAnimations.remove(this);
+	}
+
+	@Override
+	public void setRemoved() {
+		super.setRemoved();
+		CritterAnimations.remove(this);
+	}
+
+	/**
+	 * @return true once the critter is being animated, which is also when it gets drawn in batches
+	 */
+	public boolean isAnimated() {
+		return this.section != null;
+	}
+
+	public int getCurrentYaw() {
+		return this.section != null ? this.section.currentYaw[this.index] : 0;
+	}
+
+	public int getDesiredYaw() {
+		return this.section != null ? this.section.desiredYaw[this.index] : 0;
+	}
+
+	public int getYawDelay() {
+		return this.section != null ? this.section.yawDelay[this.index] : 0;
+	}
+}
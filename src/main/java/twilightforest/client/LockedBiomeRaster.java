@@ -0,0 +1,190 @@
+package twilightforest.client;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import twilightforest.TwilightForestMod;
+import twilightforest.world.registration.TFGenerationSettings;
+
+import javax.annotation.Nullable;
+
+/**
+ * Which columns around the camera sit in a biome the player hasn't unlocked yet, along with the biome of each column,
+ * so the locked biome weather can read a few bits a frame instead of asking for biomes and advancements.
+ * <p>
+ * Columns are sampled a chunk at a time as chunks come into range and forgotten once they fall out of it. Whether a
+ * biome is locked is remembered per biome and checked again every second, which is how advancement progress shows up.
+ */
+@OnlyIn(Dist.CLIENT)
+@Mod.EventBusSubscriber(modid = TwilightForestMod.ID, value = Dist.CLIENT)
+public class LockedBiomeRaster {
+	// Chunks kept in each direction of the camera's, enough for everything looking up to 16 blocks out
+	private static final int RADIUS = 1;
+	private static final int RECHECK_INTERVAL = 20;
+
+	private static final Long2ObjectMap<ChunkColumns> CHUNKS = new Long2ObjectOpenHashMap<>();
+	private static final Reference2BooleanMap<Biome> LOCKED = new Reference2BooleanOpenHashMap<>();
+	@Nullable
+	private static ClientLevel level;
+	private static int centerX;
+	private static int centerZ;
+
+	/**
+	 * Moves the raster along with the viewer and samples any chunk that came into range since the last call.
+	 */
+	public static void update(ClientLevel world, Entity viewer) {
+		if (world != level) {
+			clear();
+			level = world;
+		}
+
+		int chunkX = SectionPos.blockToSectionCoord(Mth.floor(viewer.getX()));
+		int chunkZ = SectionPos.blockToSectionCoord(Mth.floor(viewer.getZ()));
+		if (chunkX != centerX || chunkZ != centerZ) {
+			centerX = chunkX;
+			centerZ = chunkZ;
+			// one chunk of slack so walking back and forth over a border doesn't resample
+			CHUNKS.long2ObjectEntrySet().removeIf(entry -> Math.abs(ChunkPos.getX(entry.getLongKey()) - chunkX) > RADIUS + 1 || Math.abs(ChunkPos.getZ(entry.getLongKey()) - chunkZ) > RADIUS + 1);
+		}
+
+		for (int x = chunkX - RADIUS; x <= chunkX + RADIUS; x++) {
+			for (int z = chunkZ - RADIUS; z <= chunkZ + RADIUS; z++) {
+				long key = ChunkPos.asLong(x, z);
+				// chunks that aren't there yet get another go next frame
+				if (!CHUNKS.containsKey(key) && world.hasChunk(x, z)) {
+					CHUNKS.put(key, new ChunkColumns(world, x, z));
+				}
+			}
+		}
+	}
+
+	public static boolean isLocked(int x, int z) {
+		ChunkColumns chunk = CHUNKS.get(ChunkPos.asLong(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z)));
+		return chunk != null && chunk.isLocked(x & 15, z & 15);
+	}
+
+	@Nullable
+	public static Biome getBiome(int x, int z) {
+		ChunkColumns chunk = CHUNKS.get(ChunkPos.asLong(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z)));
+		return chunk != null ? chunk.biomes[(z & 15) << 4 | x & 15] : null;
+	}
+
+	/**
+	 * @return true if any column within range of x and z, in a square, is locked
+	 */
+	public static boolean isNearLocked(int x, int z, int range) {
+		for (int chunkX = SectionPos.blockToSectionCoord(x - range); chunkX <= SectionPos.blockToSectionCoord(x + range); chunkX++) {
+			for (int chunkZ = SectionPos.blockToSectionCoord(z - range); chunkZ <= SectionPos.blockToSectionCoord(z + range); chunkZ++) {
+				ChunkColumns chunk = CHUNKS.get(ChunkPos.asLong(chunkX, chunkZ));
+				if (chunk == null || !chunk.anyLocked)
+					continue;
+
+				int minX = Math.max(x - range, chunkX << 4) & 15;
+				int maxX = Math.min(x + range, (chunkX << 4) + 15) & 15;
+				int minZ = Math.max(z - range, chunkZ << 4) & 15;
+				int maxZ = Math.min(z + range, (chunkZ << 4) + 15) & 15;
+				for (int localZ = minZ; localZ <= maxZ; localZ++) {
+					for (int localX = minX; localX <= maxX; localX++) {
+						if (chunk.isLocked(localX, localZ))
+							return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	@SubscribeEvent
+	public static void recheckBiomes(TickEvent.ClientTickEvent event) {
+		Player player = Minecraft.getInstance().player;
+		if (event.phase != TickEvent.Phase.END || player == null || player.tickCount % RECHECK_INTERVAL != 0 || LOCKED.isEmpty())
+			return;
+
+		boolean changed = false;
+		for (Reference2BooleanMap.Entry<Biome> entry : LOCKED.reference2BooleanEntrySet()) {
+			boolean locked = !TFGenerationSettings.isBiomeSafeFor(entry.getKey(), player);
+			if (locked != entry.getBooleanValue()) {
+				entry.setValue(locked);
+				changed = true;
+			}
+		}
+
+		if (changed) {
+			for (ChunkColumns chunk : CHUNKS.values())
+				chunk.updateLocks();
+		}
+	}
+
+	@SubscribeEvent
+	public static void unloadLevel(WorldEvent.Unload event) {
+		if (event.getWorld() == level) {
+			clear();
+			level = null;
+		}
+	}
+
+	private static void clear() {
+		CHUNKS.clear();
+		LOCKED.clear();
+		centerX = Integer.MIN_VALUE;
+		centerZ = Integer.MIN_VALUE;
+	}
+
+	private static boolean isLocked(Biome biome) {
+		if (LOCKED.containsKey(biome))
+			return LOCKED.getBoolean(biome);
+		Player player = Minecraft.getInstance().player;
+		boolean locked = player != null && !TFGenerationSettings.isBiomeSafeFor(biome, player);
+		LOCKED.put(biome, locked);
+		return locked;
+	}
+
+	private static class ChunkColumns {
+		private final Biome[] biomes = new Biome[16 * 16];
+		private final long[] locked = new long[16 * 16 / 64];
+		private boolean anyLocked;
+
+		private ChunkColumns(ClientLevel world, int chunkX, int chunkZ) {
+			BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+			for (int z = 0; z < 16; z++) {
+				for (int x = 0; x < 16; x++) {
+					this.biomes[z << 4 | x] = world.getBiome(pos.set((chunkX << 4) + x, 0, (chunkZ << 4) + z)).value();
+				}
+			}
+			this.updateLocks();
+		}
+
+		private void updateLocks() {
+			this.anyLocked = false;
+			for (int i = 0; i < this.biomes.length; i++) {
+				if (LockedBiomeRaster.isLocked(this.biomes[i])) {
+					this.locked[i >> 6] |= 1L << i;
+					this.anyLocked = true;
+				} else {
+					this.locked[i >> 6] &= ~(1L << i);
+				}
+			}
+		}
+
+		private boolean isLocked(int x, int z) {
+			int i = z << 4 | x;
+			return (this.locked[i >> 6] & 1L << i) != 0;
+		}
+	}
+}
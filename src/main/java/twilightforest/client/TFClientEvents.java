@@ -39,13 +39,16 @@ import twilightforest.TFConfig;
 import twilightforest.TFEventListener;
 import twilightforest.TwilightForestMod;
 import twilightforest.block.TFBlocks;
+import twilightforest.block.entity.CritterAnimations;
 import twilightforest.client.model.item.FullbrightBakedModel;
 import twilightforest.client.model.item.TintIndexAwareFullbrightBakedModel;
 import twilightforest.client.renderer.TFWeatherRenderer;
 import twilightforest.client.renderer.entity.ShieldLayer;
 import twilightforest.client.renderer.tileentity.TwilightChestRenderer;
 import twilightforest.data.tags.ItemTagGenerator;
+import twilightforest.inventory.UncraftingRecipeIndex;
 import twilightforest.item.TFItems;
+import twilightforest.item.recipe.TransformationRecipeIndex;
 
 import java.util.Objects;
 import java.util.function.UnaryOperator;
@@ -215,6 +218,15 @@ public class TFClientEvents {
 		}
 	}
 
+	/**
+	 * Recipes sent by the server replace the ones in the client's recipe manager, so drop what was indexed from it
+	 */
+	@SubscribeEvent
+	public static void recipesUpdated(RecipesUpdatedEvent event) {
+		UncraftingRecipeIndex.invalidate(event.getRecipeManager());
+		TransformationRecipeIndex.invalidate(event.getRecipeManager());
+	}
+
 	/**
 	 * Stop the game from rendering the mount health for unfriendly creatures
 	 */
@@ -292,6 +304,10 @@ public class TFClientEvents {
 		BugModelAnimationHelper.animate();
 		DimensionSpecialEffects info = DimensionSpecialEffects.EFFECTS.get(TwilightForestMod.prefix("renderer"));
 
+		if (!mc.isPaused() && mc.level != null && mc.getCameraEntity() != null) {
+			CritterAnimations.tick(mc.level, mc.getCameraEntity().blockPosition(), mc.options.renderDistance);
+		}
+
 		// add weather box if needed
 		if (!mc.isPaused() && mc.level != null && info instanceof TwilightForestRenderInfo) {
 			IWeatherRenderHandler weatherRenderer = info.getWeatherRenderHandler();
@@ -67,8 +67,8 @@ public class MoonwormModel extends Model {
 		this.shape2.y = 7F;
 		this.shape3.y = 7F;
 
-		if (moonworm != null && moonworm.yawDelay == 0) {
-			float time = (moonworm.desiredYaw - moonworm.currentYaw) - partialTime;
+		if (moonworm != null && moonworm.getYawDelay() == 0) {
+			float time = (moonworm.getDesiredYaw() - moonworm.getCurrentYaw()) - partialTime;
 
 			// moving
 			this.head.y += Math.min(0, Mth.sin(time / 2));
@@ -16,14 +16,18 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.core.Registry;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraftforge.client.IWeatherRenderHandler;
 import twilightforest.TwilightForestMod;
+import twilightforest.client.LockedBiomeRaster;
 import twilightforest.world.registration.TFGenerationSettings;
 import twilightforest.world.registration.biomes.BiomeKeys;
 
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -43,6 +47,7 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 	private BoundingBox protectedBox;
 
 	private final Random random = new Random();
+	private final WeatherColumns columns = new WeatherColumns();
 
 	public TFWeatherRenderer() {
 		for (int i = 0; i < 32; ++i) {
@@ -81,7 +86,6 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 		float f = Minecraft.getInstance().level.getRainLevel(ticks);
 		if (!(f <= 0.0F)) {
 			lightmap.turnOnLightLayer();
-			Level level = Minecraft.getInstance().level;
 			int i = Mth.floor(x);
 			int j = Mth.floor(y);
 			int k = Mth.floor(z);
@@ -102,16 +106,16 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 			RenderSystem.setShader(GameRenderer::getParticleShader);
 			RenderSystem.setShaderColor(1.0F, 1.0F, 1.0F, 1.0F);
 			BlockPos.MutableBlockPos blockpos$mutableblockpos = new BlockPos.MutableBlockPos();
+			this.columns.begin(world, this.rendererUpdateCount); // TF - biomes, heights and light come from the column cache
 
 			for(int j1 = k - l; j1 <= k + l; ++j1) {
 				for(int k1 = i - l; k1 <= i + l; ++k1) {
 					int l1 = (j1 - k + 16) * 32 + k1 - i + 16;
 					double d0 = (double)this.rainxs[l1] * 0.5D;
 					double d1 = (double)this.rainzs[l1] * 0.5D;
-					blockpos$mutableblockpos.set(k1, 0, j1);
-					Biome biome = level.getBiome(blockpos$mutableblockpos).value();
+					Biome biome = this.columns.getBiome(k1, j1);
 					if (biome.getPrecipitation() != Biome.Precipitation.NONE) {
-						int i2 = level.getHeightmapPos(Heightmap.Types.MOTION_BLOCKING, blockpos$mutableblockpos).getY();
+						int i2 = this.columns.getHeight(k1, j1);
 						int j2 = j - l;
 						int k2 = j + l;
 						if (j2 < i2) {
@@ -128,7 +132,7 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 						}
 
 						if (j2 != k2) {
-							Random random = new Random((long) k1 * k1 * 3121 + k1 * 45238971L ^ (long) j1 * j1 * 418711 + j1 * 13761L);
+							random.setSeed((long) k1 * k1 * 3121 + k1 * 45238971L ^ (long) j1 * j1 * 418711 + j1 * 13761L);
 							blockpos$mutableblockpos.set(k1, j2, j1);
 							float f2 = biome.getTemperature(blockpos$mutableblockpos);
 							if (f2 >= 0.15F) {
@@ -148,8 +152,7 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 								double d4 = (double)j1 + 0.5D - z;
 								float f4 = (float)Math.sqrt(d2 * d2 + d4 * d4) / (float)l;
 								float f5 = ((1.0F - f4 * f4) * 0.5F + 0.5F) * f;
-								blockpos$mutableblockpos.set(k1, l2, j1);
-								int j3 = LevelRenderer.getLightColor(level, blockpos$mutableblockpos);
+								int j3 = this.columns.getLight(k1, l2, j1);
 								bufferbuilder.vertex((double)k1 - x - d0 + 0.5D, (double)k2 - y, (double)j1 - z - d1 + 0.5D).uv(0.0F, (float)j2 * 0.25F + f3).color(1.0F, 1.0F, 1.0F, f5).uv2(j3).endVertex();
 								bufferbuilder.vertex((double)k1 - x + d0 + 0.5D, (double)k2 - y, (double)j1 - z + d1 + 0.5D).uv(1.0F, (float)j2 * 0.25F + f3).color(1.0F, 1.0F, 1.0F, f5).uv2(j3).endVertex();
 								bufferbuilder.vertex((double)k1 - x + d0 + 0.5D, (double)j2 - y, (double)j1 - z + d1 + 0.5D).uv(1.0F, (float)k2 * 0.25F + f3).color(1.0F, 1.0F, 1.0F, f5).uv2(j3).endVertex();
@@ -172,8 +175,7 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 								double d5 = (double)j1 + 0.5D - z;
 								float f9 = (float)Math.sqrt(d3 * d3 + d5 * d5) / (float)l;
 								float f10 = ((1.0F - f9 * f9) * 0.3F + 0.5F) * f;
-								blockpos$mutableblockpos.set(k1, l2, j1);
-								int k3 = LevelRenderer.getLightColor(level, blockpos$mutableblockpos);
+								int k3 = this.columns.getLight(k1, l2, j1);
 								int l3 = k3 >> 16 & '\uffff';
 								int i4 = k3 & '\uffff';
 								int j4 = (l3 * 3 + 240) / 4;
@@ -201,11 +203,10 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 	// [VanillaCopy] inside of EntityRenderer.renderRainSnow, edits noted
 	private void renderLockedBiome(float partialTicks, ClientLevel wc, Minecraft mc, LightTexture lightmap, double xIn, double yIn, double zIn) {
 		// check nearby for locked biome
-		if (isNearLockedBiome(wc, mc.getCameraEntity())) {
+		LockedBiomeRaster.update(wc, mc.getCameraEntity());
+		if (isNearLockedBiome(mc.getCameraEntity())) {
 
 			lightmap.turnOnLightLayer();
-			Entity entity = mc.getCameraEntity();
-			Level world = mc.level;
 
 			int x0 = Mth.floor(xIn);
 			int y0 = Mth.floor(yIn);
@@ -231,7 +232,7 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 			float combinedTicks = this.rendererUpdateCount + partialTicks;
 			//bufferbuilder.setTranslation(-dx, -dy, -dz);
 			RenderSystem.setShaderColor(1.0F, 1.0F, 1.0F, 1.0F);
-			BlockPos.MutableBlockPos blockpos$mutableblockpos = new BlockPos.MutableBlockPos();
+			this.columns.begin(wc, this.rendererUpdateCount);
 
 			for (int z = z0 - range; z <= z0 + range; ++z) {
 				for (int x = x0 - range; x <= x0 + range; ++x) {
@@ -240,11 +241,9 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 					double rx = this.rainxs[idx] * 0.5D;
 					double ry = this.rainzs[idx] * 0.5D;
 
-					blockpos$mutableblockpos.set(x, 0, z);
-					Biome biome = world.getBiome(blockpos$mutableblockpos).value();
-
 					// TF - check for our own biomes
-					if (!TFGenerationSettings.isBiomeSafeFor(biome, entity)) {
+					if (LockedBiomeRaster.isLocked(x, z)) {
+						Biome biome = LockedBiomeRaster.getBiome(x, z);
 
 						int groundY = 0; // TF - extend through full height
 						int minY = y0 - range;
@@ -288,8 +287,7 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 									double d7 = z + 0.5F - zIn;
 									float f3 = Mth.sqrt((float) (d6 * d6 + d7 * d7)) / range;
 									float f4 = ((1.0F - f3 * f3) * 0.5F + 0.5F);
-									blockpos$mutableblockpos.set(x, y, z);
-									int j3 = LevelRenderer.getLightColor(world, blockpos$mutableblockpos);
+									int j3 = this.columns.getLight(x, y, z);
 									int k3 = j3 >> 16 & 65535;
 									int l3 = j3 & 65535;
 									bufferbuilder.vertex(x - xIn - rx + 0.5D, maxY - yIn, z - zIn - ry + 0.5D).uv(0.0F, minY * 0.25F + d5).color(1.0F, 1.0F, 1.0F, f4).uv2(k3, l3).endVertex();
@@ -463,22 +461,8 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 		}
 	}
 
-	private boolean isNearLockedBiome(Level world, Entity viewEntity) {
-		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-		final int range = 15;
-		int px = Mth.floor(viewEntity.getX());
-		int pz = Mth.floor(viewEntity.getZ());
-
-		for (int z = pz - range; z <= pz + range; ++z) {
-			for (int x = px - range; x <= px + range; ++x) {
-				Biome biome = world.getBiome(pos.set(x, 0, z)).value();
-				if (!TFGenerationSettings.isBiomeSafeFor(biome, viewEntity)) {
-					return true;
-				}
-			}
-		}
-
-		return false;
+	private boolean isNearLockedBiome(Entity viewEntity) {
+		return LockedBiomeRaster.isNearLocked(Mth.floor(viewEntity.getX()), Mth.floor(viewEntity.getZ()), 15);
 	}
 
 	private boolean isNearLockedStructure(double xIn, double zIn) {
@@ -511,6 +495,74 @@ public class TFWeatherRenderer implements IWeatherRenderHandler {
 		return null;
 	}
 
+	/**
+	 * Biome, rain height and light of the columns around the camera, in a 32x32 ring that follows the camera around.
+	 * Biomes never change so they stay until their slot is taken by another column, heights and light are sampled again
+	 * at most once a tick instead of every frame.
+	 */
+	private static class WeatherColumns {
+		private static final int SIZE = 32; // has to be a power of two, and cover the widest weather area (21 columns)
+
+		private final long[] keys = new long[SIZE * SIZE];
+		private final Biome[] biomes = new Biome[SIZE * SIZE];
+		private final int[] heights = new int[SIZE * SIZE];
+		private final int[] heightTicks = new int[SIZE * SIZE];
+		private final int[] lights = new int[SIZE * SIZE];
+		private final int[] lightYs = new int[SIZE * SIZE];
+		private final int[] lightTicks = new int[SIZE * SIZE];
+		private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		private Level level;
+		private int tick;
+
+		private WeatherColumns() {
+			Arrays.fill(this.keys, Long.MIN_VALUE);
+		}
+
+		private void begin(Level level, int tick) {
+			if (level != this.level) {
+				Arrays.fill(this.keys, Long.MIN_VALUE);
+				this.level = level;
+			}
+			this.tick = tick;
+		}
+
+		private int getColumn(int x, int z) {
+			int i = (z & SIZE - 1) * SIZE + (x & SIZE - 1);
+			long key = ChunkPos.asLong(x, z);
+			if (this.keys[i] != key) {
+				// columns whose chunk hasn't arrived yet are sampled again next time, they'd only get the empty chunk's biome
+				this.keys[i] = this.level.hasChunk(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z)) ? key : Long.MIN_VALUE;
+				this.biomes[i] = this.level.getBiome(this.pos.set(x, 0, z)).value();
+				this.heightTicks[i] = this.tick - 1;
+				this.lightTicks[i] = this.tick - 1;
+			}
+			return i;
+		}
+
+		private Biome getBiome(int x, int z) {
+			return this.biomes[this.getColumn(x, z)];
+		}
+
+		private int getHeight(int x, int z) {
+			int i = this.getColumn(x, z);
+			if (this.heightTicks[i] != this.tick) {
+				this.heightTicks[i] = this.tick;
+				this.heights[i] = this.level.getHeight(Heightmap.Types.MOTION_BLOCKING, x, z);
+			}
+			return this.heights[i];
+		}
+
+		private int getLight(int x, int y, int z) {
+			int i = this.getColumn(x, z);
+			if (this.lightTicks[i] != this.tick || this.lightYs[i] != y) {
+				this.lightTicks[i] = this.tick;
+				this.lightYs[i] = y;
+				this.lights[i] = LevelRenderer.getLightColor(this.level, this.pos.set(x, y, z));
+			}
+			return this.lights[i];
+		}
+	}
+
 	private enum RenderType {
 
 		BLIZZARD("blizzard.png"),
@@ -28,7 +28,13 @@ public class CicadaTileEntityRenderer implements BlockEntityRenderer<CicadaBlock
 
 	@Override
 	public void render(@Nullable CicadaBlockEntity te, float partialTicks, PoseStack ms, MultiBufferSource buffers, int light, int overlay) {
-		int yaw = te != null ? te.currentYaw : BugModelAnimationHelper.currentYaw;
+		// drawn along with every other critter in view by CritterBatchRenderer
+		if (te != null && te.isAnimated()) {
+			CritterBatchRenderer.render(te, ms);
+			return;
+		}
+
+		int yaw = te != null ? te.getCurrentYaw() : BugModelAnimationHelper.currentYaw;
 
 		ms.pushPose();
 		Direction facing = te != null ? te.getBlockState().getValue(DirectionalBlock.FACING) : Direction.NORTH;
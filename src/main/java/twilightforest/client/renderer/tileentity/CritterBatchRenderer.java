@@ -0,0 +1,311 @@
+package twilightforest.client.renderer.tileentity;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.mojang.math.Matrix3f;
+import com.mojang.math.Matrix4f;
+import com.mojang.math.Vector3f;
+import com.mojang.math.Vector4f;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.model.Model;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.DirectionalBlock;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import twilightforest.TwilightForestMod;
+import twilightforest.block.entity.CicadaBlockEntity;
+import twilightforest.block.entity.CritterAnimations;
+import twilightforest.block.entity.CritterBlockEntity;
+import twilightforest.block.entity.FireflyBlockEntity;
+import twilightforest.client.model.TFModelLayers;
+import twilightforest.client.model.entity.CicadaModel;
+import twilightforest.client.model.entity.FireflyModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Draws every firefly and cicada in a chunk section as one batch, instead of going through their block entity renderers
+ * one at a time. Each section keeps the vertices of its critters, already turned the way they face, and only rebuilds
+ * them when a critter comes, goes or turns. Every frame the batches are moved into place, lit per critter, and written
+ * into a single buffer for each kind.
+ * <p>
+ * It all happens from the first critter renderer called in a frame, so critters are drawn along with the other block
+ * entities, before translucent blocks, and nothing is drawn when no critter is in sight.
+ * <p>
+ * Moonworms still go through their renderer, their parts wriggle every frame.
+ */
+@Mod.EventBusSubscriber(modid = TwilightForestMod.ID, value = Dist.CLIENT)
+public class CritterBatchRenderer {
+	private static final ResourceLocation FIREFLY_TEXTURE = TwilightForestMod.getModelTexture("firefly-tiny.png");
+	private static final ResourceLocation CICADA_TEXTURE = TwilightForestMod.getModelTexture("cicada-model.png");
+	// what block entity renderers default to
+	private static final double VIEW_DISTANCE = 64.0D;
+
+	private static final Map<CritterAnimations.Section, Batch> BATCHES = new WeakHashMap<>();
+	private static FireflyModel fireflyModel;
+	private static CicadaModel cicadaModel;
+
+	private static final Vector4f position = new Vector4f();
+	private static final Vector3f normal = new Vector3f();
+	private static int frame;
+	private static int renderedFrame = -1;
+
+	@SubscribeEvent
+	public static void countFrames(TickEvent.RenderTickEvent event) {
+		if (event.phase == TickEvent.Phase.START)
+			frame++;
+	}
+
+	/**
+	 * Draws every batched critter in view, the first time it's called in a frame.
+	 *
+	 * @param ms the pose stack as handed to the critter's block entity renderer, moved to the critter
+	 */
+	public static void render(CritterBlockEntity critter, PoseStack ms) {
+		Minecraft minecraft = Minecraft.getInstance();
+		ClientLevel level = minecraft.level;
+		if (level == null || renderedFrame == frame)
+			return;
+		renderedFrame = frame;
+
+		if (fireflyModel == null) {
+			fireflyModel = new FireflyModel(minecraft.getEntityModels().bakeLayer(TFModelLayers.FIREFLY));
+			cicadaModel = new CicadaModel(minecraft.getEntityModels().bakeLayer(TFModelLayers.CICADA));
+		}
+
+		// back out to the camera from where the block entity renderer put us
+		Vec3 camera = minecraft.gameRenderer.getMainCamera().getPosition();
+		BlockPos critterPos = critter.getBlockPos();
+		ms.pushPose();
+		ms.translate(camera.x() - critterPos.getX(), camera.y() - critterPos.getY(), camera.z() - critterPos.getZ());
+		PoseStack.Pose pose = ms.last();
+		Frustum frustum = new Frustum(pose.pose(), RenderSystem.getProjectionMatrix());
+		frustum.prepare(camera.x(), camera.y(), camera.z());
+
+		List<Batch> visible = new ArrayList<>();
+		for (CritterAnimations.Section section : CritterAnimations.getSections(level)) {
+			int x = SectionPos.sectionToBlockCoord(SectionPos.x(section.getKey()));
+			int y = SectionPos.sectionToBlockCoord(SectionPos.y(section.getKey()));
+			int z = SectionPos.sectionToBlockCoord(SectionPos.z(section.getKey()));
+			AABB bounds = new AABB(x, y, z, x + 16, y + 16, z + 16);
+			if (bounds.distanceToSqr(camera) > VIEW_DISTANCE * VIEW_DISTANCE || !frustum.isVisible(bounds))
+				continue;
+
+			Batch batch = BATCHES.computeIfAbsent(section, s -> new Batch());
+			if (batch.version != section.getVersion() || !batch.built)
+				batch.rebuild(section);
+			batch.x = x - camera.x();
+			batch.y = y - camera.y();
+			batch.z = z - camera.z();
+			visible.add(batch);
+		}
+
+		// not the buffers the renderer got, those put the crack overlay on everything while that critter is being mined
+		MultiBufferSource buffers = minecraft.renderBuffers().bufferSource();
+		// one kind after the other, asking for another render type finishes the one before
+		VertexConsumer fireflies = null;
+		for (Batch batch : visible) {
+			if (!batch.fireflies.isEmpty()) {
+				if (fireflies == null)
+					fireflies = buffers.getBuffer(RenderType.entityCutout(FIREFLY_TEXTURE));
+				batch.fireflies.render(level, fireflies, pose, batch.x, batch.y, batch.z);
+			}
+		}
+		VertexConsumer cicadas = null;
+		for (Batch batch : visible) {
+			if (!batch.cicadas.isEmpty()) {
+				if (cicadas == null)
+					cicadas = buffers.getBuffer(cicadaModel.renderType(CICADA_TEXTURE));
+				batch.cicadas.render(level, cicadas, pose, batch.x, batch.y, batch.z);
+			}
+		}
+		ms.popPose();
+	}
+
+	@SubscribeEvent
+	public static void unloadLevel(WorldEvent.Unload event) {
+		if (event.getWorld().isClientSide())
+			BATCHES.clear();
+	}
+
+	private static class Batch {
+		private final Mesh fireflies = new Mesh();
+		private final Mesh cicadas = new Mesh();
+		private int version;
+		private boolean built;
+		// where the section is from the camera this frame
+		private double x, y, z;
+
+		private void rebuild(CritterAnimations.Section section) {
+			this.fireflies.clear();
+			this.cicadas.clear();
+			BlockPos origin = SectionPos.of(section.getKey()).origin();
+			PoseStack ms = new PoseStack();
+			for (int i = 0; i < section.size(); i++) {
+				CritterBlockEntity critter = section.getCritter(i);
+				Model model;
+				Mesh mesh;
+				if (critter instanceof FireflyBlockEntity) {
+					model = fireflyModel;
+					mesh = this.fireflies;
+				} else if (critter instanceof CicadaBlockEntity) {
+					model = cicadaModel;
+					mesh = this.cicadas;
+				} else {
+					continue;
+				}
+
+				BlockPos pos = critter.getBlockPos();
+				Direction facing = critter.getBlockState().getValue(DirectionalBlock.FACING);
+
+				// same as the block entity renderers
+				ms.pushPose();
+				ms.translate(pos.getX() - origin.getX() + 0.5F, pos.getY() - origin.getY() + 0.5F, pos.getZ() - origin.getZ() + 0.5F);
+				ms.mulPose(facing.getRotation());
+				ms.mulPose(Vector3f.ZP.rotationDegrees(180.0F));
+				ms.mulPose(Vector3f.YP.rotationDegrees(180.0F));
+				ms.mulPose(Vector3f.YN.rotationDegrees(critter.getCurrentYaw()));
+				model.renderToBuffer(ms, mesh, 0, OverlayTexture.NO_OVERLAY, 1.0F, 1.0F, 1.0F, 1.0F);
+				mesh.finishCritter(pos);
+				ms.popPose();
+			}
+			this.version = section.getVersion();
+			this.built = true;
+		}
+	}
+
+	/**
+	 * The vertices of every critter of one kind in a section, relative to the section's corner. Colour, overlay and
+	 * light are left out, they're the same for every vertex of a critter.
+	 */
+	private static class Mesh implements VertexConsumer {
+		// x, y, z, u, v, normal x, y, z
+		private static final int STRIDE = 8;
+
+		private final FloatArrayList vertices = new FloatArrayList();
+		private final LongArrayList positions = new LongArrayList();
+		// where each critter's vertices end
+		private final IntArrayList ends = new IntArrayList();
+		// the vertex being built, for anything that doesn't hand it over all at once
+		private final float[] next = new float[STRIDE];
+
+		private boolean isEmpty() {
+			return this.positions.isEmpty();
+		}
+
+		private void clear() {
+			this.vertices.clear();
+			this.positions.clear();
+			this.ends.clear();
+		}
+
+		private void finishCritter(BlockPos pos) {
+			this.positions.add(pos.asLong());
+			this.ends.add(this.vertices.size());
+		}
+
+		private void render(ClientLevel level, VertexConsumer buffer, PoseStack.Pose pose, double x, double y, double z) {
+			Matrix4f matrix = pose.pose();
+			Matrix3f normals = pose.normal();
+			BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+			float[] data = this.vertices.elements();
+			int start = 0;
+			for (int critter = 0; critter < this.positions.size(); critter++) {
+				int light = LevelRenderer.getLightColor(level, pos.set(this.positions.getLong(critter)));
+				int end = this.ends.getInt(critter);
+				for (int i = start; i < end; i += STRIDE) {
+					position.set((float) (data[i] + x), (float) (data[i + 1] + y), (float) (data[i + 2] + z), 1.0F);
+					position.transform(matrix);
+					normal.set(data[i + 5], data[i + 6], data[i + 7]);
+					normal.transform(normals);
+					buffer.vertex(position.x(), position.y(), position.z(), 1.0F, 1.0F, 1.0F, 1.0F, data[i + 3], data[i + 4], OverlayTexture.NO_OVERLAY, light, normal.x(), normal.y(), normal.z());
+				}
+				start = end;
+			}
+		}
+
+		@Override
+		public void vertex(float x, float y, float z, float red, float green, float blue, float alpha, float u, float v, int overlay, int light, float normalX, float normalY, float normalZ) {
+			this.vertices.add(x);
+			this.vertices.add(y);
+			this.vertices.add(z);
+			this.vertices.add(u);
+			this.vertices.add(v);
+			this.vertices.add(normalX);
+			this.vertices.add(normalY);
+			this.vertices.add(normalZ);
+		}
+
+		@Override
+		public VertexConsumer vertex(double x, double y, double z) {
+			this.next[0] = (float) x;
+			this.next[1] = (float) y;
+			this.next[2] = (float) z;
+			return this;
+		}
+
+		@Override
+		public VertexConsumer color(int red, int green, int blue, int alpha) {
+			return this;
+		}
+
+		@Override
+		public VertexConsumer uv(float u, float v) {
+			this.next[3] = u;
+			this.next[4] = v;
+			return this;
+		}
+
+		@Override
+		public VertexConsumer overlayCoords(int u, int v) {
+			return this;
+		}
+
+		@Override
+		public VertexConsumer uv2(int u, int v) {
+			return this;
+		}
+
+		@Override
+		public VertexConsumer normal(float x, float y, float z) {
+			this.next[5] = x;
+			this.next[6] = y;
+			this.next[7] = z;
+			return this;
+		}
+
+		@Override
+		public void endVertex() {
+			this.vertices.addElements(this.vertices.size(), this.next);
+		}
+
+		@Override
+		public void defaultColor(int red, int green, int blue, int alpha) {
+		}
+
+		@Override
+		public void unsetDefaultColor() {
+		}
+	}
+}
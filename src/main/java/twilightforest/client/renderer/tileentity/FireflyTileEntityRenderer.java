@@ -52,8 +52,14 @@ public class FireflyTileEntityRenderer implements BlockEntityRenderer<FireflyBlo
 
 	@Override
 	public void render(@Nullable FireflyBlockEntity te, float partialTicks, PoseStack ms, MultiBufferSource buffer, int light, int overlay) {
-		int yaw = te != null ? te.currentYaw : BugModelAnimationHelper.currentYaw;
-		float glow = te != null ? te.glowIntensity : BugModelAnimationHelper.glowIntensity;
+		// drawn along with every other critter in view by CritterBatchRenderer
+		if (te != null && te.isAnimated()) {
+			CritterBatchRenderer.render(te, ms);
+			return;
+		}
+
+		int yaw = te != null ? te.getCurrentYaw() : BugModelAnimationHelper.currentYaw;
+		float glow = te != null ? te.getGlowIntensity() : BugModelAnimationHelper.glowIntensity;
 
 		ms.pushPose();
 		Direction facing = te != null ? te.getBlockState().getValue(DirectionalBlock.FACING) : Direction.NORTH;
@@ -30,7 +30,7 @@ public class MoonwormTileEntityRenderer implements BlockEntityRenderer<MoonwormB
 
 	@Override
 	public void render(@Nullable MoonwormBlockEntity te, float partialTicks, PoseStack ms, MultiBufferSource buffer, int light, int overlay) {
-		int yaw = te != null ? te.currentYaw : BugModelAnimationHelper.currentRotation;
+		int yaw = te != null ? te.getCurrentYaw() : BugModelAnimationHelper.currentRotation;
 		if (te == null) partialTicks = Minecraft.getInstance().getFrameTime();
 
 		ms.pushPose();
@@ -11,6 +11,7 @@ import net.minecraft.network.chat.TranslatableComponent;
 import twilightforest.util.WorldUtil;
 import twilightforest.world.components.chunkgenerators.ChunkGeneratorTwilight;
 import twilightforest.world.components.structures.start.TFStructureStart;
+import twilightforest.world.registration.ProtectedAreaCache;
 import twilightforest.world.registration.TFGenerationSettings;
 
 import java.util.Optional;
@@ -42,6 +43,7 @@ public class ConquerCommand {
 				//source.sendSuccess(new TranslatableComponent("This command currently isnt working as the structure conquered flag has not been reimplemented yet.").withStyle(ChatFormatting.RED), false);
 				source.sendSuccess(new TranslatableComponent("commands.tffeature.structure.conquer.update", structure.isConquered(), flag), true);
 				structure.setConquered(flag);
+				ProtectedAreaCache.invalidate(structure.getBoundingBox());
 			});
 			return Command.SINGLE_SUCCESS;
 		} else {
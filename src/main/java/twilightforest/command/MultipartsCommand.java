@@ -0,0 +1,33 @@
+package twilightforest.command;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TranslatableComponent;
+import net.minecraft.world.entity.EntityType;
+import twilightforest.network.MultipartSync;
+
+public class MultipartsCommand {
+	public static LiteralArgumentBuilder<CommandSourceStack> register() {
+		return Commands.literal("multiparts").requires(cs -> cs.hasPermission(2)).executes(MultipartsCommand::run);
+	}
+
+	private static int run(CommandContext<CommandSourceStack> ctx) {
+		CommandSourceStack source = ctx.getSource();
+		Object2LongMap<EntityType<?>> bytes = MultipartSync.getBytesLastSecond();
+
+		if (bytes.isEmpty()) {
+			source.sendSuccess(new TranslatableComponent("commands.tffeature.multiparts.none"), false);
+			return 0;
+		}
+
+		source.sendSuccess(new TranslatableComponent("commands.tffeature.multiparts.header"), false);
+		for (Object2LongMap.Entry<EntityType<?>> entry : bytes.object2LongEntrySet())
+			source.sendSuccess(new TranslatableComponent("commands.tffeature.multiparts.entry", entry.getKey().getDescription(), entry.getLongValue()), false);
+
+		return Command.SINGLE_SUCCESS;
+	}
+}
@@ -9,7 +9,8 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.DispenserBlock;
 import net.minecraft.world.level.block.state.BlockState;
-import twilightforest.item.recipe.TFRecipes;
+import twilightforest.item.recipe.CrumbleRecipe;
+import twilightforest.item.recipe.TransformationRecipeIndex;
 
 public class CrumbleDispenseBehavior extends DefaultDispenseItemBehavior {
 
@@ -22,18 +23,16 @@ public class CrumbleDispenseBehavior extends DefaultDispenseItemBehavior {
         BlockState state = world.getBlockState(pos);
         if(!world.isClientSide) {
             if (!(stack.getMaxDamage() == stack.getDamageValue() + 1)) {
-                world.getRecipeManager().getAllRecipesFor(TFRecipes.CRUMBLE_RECIPE).forEach(recipe -> {
-                    if(recipe.getInput().is(state.getBlock())) {
-                        if (recipe.getResult().is(Blocks.AIR)) {
-                            world.removeBlock(pos, true);
-                            world.levelEvent(2001, pos, Block.getId(state));
-                        } else {
-                            world.setBlock(pos, recipe.getResult().getBlock().withPropertiesOf(state), 3);
-                        }
-                        stack.hurt(1, world.random, null);
-                        fired = true;
+                for (CrumbleRecipe recipe : TransformationRecipeIndex.get(world.getRecipeManager()).getCrumbleRecipes(state.getBlock())) {
+                    if (recipe.getResult().is(Blocks.AIR)) {
+                        world.removeBlock(pos, true);
+                        world.levelEvent(2001, pos, Block.getId(state));
+                    } else {
+                        world.setBlock(pos, recipe.getResult().getBlock().withPropertiesOf(state), 3);
                     }
-                });
+                    stack.hurt(1, world.random, null);
+                    fired = true;
+                }
             }
         }
         return stack;
@@ -12,7 +12,8 @@ import net.minecraft.world.level.block.DispenserBlock;
 import net.minecraft.world.phys.AABB;
 import twilightforest.TFSounds;
 import twilightforest.TwilightForestMod;
-import twilightforest.item.recipe.TFRecipes;
+import twilightforest.item.recipe.TransformPowderRecipe;
+import twilightforest.item.recipe.TransformationRecipeIndex;
 
 import java.util.Random;
 import java.util.UUID;
@@ -27,38 +28,38 @@ public class TransformationDispenseBehavior extends DefaultDispenseItemBehavior
 		Random random = world.getRandom();
 		BlockPos blockpos = source.getPos().relative(source.getBlockState().getValue(DispenserBlock.FACING));
 		if (!world.isClientSide) {
+			TransformationRecipeIndex recipes = TransformationRecipeIndex.get(world.getRecipeManager());
 			for (LivingEntity livingentity : world.getEntitiesOfClass(LivingEntity.class, new AABB(blockpos), EntitySelector.NO_SPECTATORS)) {
-				world.getRecipeManager().getAllRecipesFor(TFRecipes.TRANSFORM_POWDER_RECIPE).forEach((recipe) -> {
-					if (recipe.getInput() == livingentity.getType()) {
-						EntityType<?> type = recipe.getResult();
-						Entity newEntity = type.create(world);
-						if (type != null && newEntity != null) {
-							newEntity.moveTo(livingentity.getX(), livingentity.getY(), livingentity.getZ(), livingentity.getYRot(), livingentity.getXRot());
-							if (newEntity instanceof Mob mob && livingentity.level instanceof ServerLevelAccessor sworld) {
-								mob.finalizeSpawn(sworld, livingentity.level.getCurrentDifficultyAt(livingentity.blockPosition()), MobSpawnType.CONVERSION, null, null);
-							}
+				TransformPowderRecipe recipe = recipes.getTransformRecipe(livingentity.getType());
+				if (recipe != null) {
+					EntityType<?> type = recipe.getResult();
+					Entity newEntity = type.create(world);
+					if (type != null && newEntity != null) {
+						newEntity.moveTo(livingentity.getX(), livingentity.getY(), livingentity.getZ(), livingentity.getYRot(), livingentity.getXRot());
+						if (newEntity instanceof Mob mob && livingentity.level instanceof ServerLevelAccessor sworld) {
+							mob.finalizeSpawn(sworld, livingentity.level.getCurrentDifficultyAt(livingentity.blockPosition()), MobSpawnType.CONVERSION, null, null);
+						}
 
-							try {
-								UUID uuid = newEntity.getUUID();
-								newEntity.load(livingentity.saveWithoutId(newEntity.saveWithoutId(new CompoundTag())));
-								newEntity.setUUID(uuid);
-							} catch (Exception e) {
-								TwilightForestMod.LOGGER.warn("Couldn't transform entity NBT data", e);
-							}
+						try {
+							UUID uuid = newEntity.getUUID();
+							newEntity.load(livingentity.saveWithoutId(newEntity.saveWithoutId(new CompoundTag())));
+							newEntity.setUUID(uuid);
+						} catch (Exception e) {
+							TwilightForestMod.LOGGER.warn("Couldn't transform entity NBT data", e);
+						}
 
-							livingentity.level.addFreshEntity(newEntity);
-							livingentity.discard();
+						livingentity.level.addFreshEntity(newEntity);
+						livingentity.discard();
 
-							if (livingentity instanceof Mob && livingentity.level.isClientSide) {
-								((Mob) livingentity).spawnAnim();
-								((Mob) livingentity).spawnAnim();
-							}
-							livingentity.playSound(TFSounds.POWDER_USE, 1.0F + random.nextFloat(), random.nextFloat() * 0.7F + 0.3F);
-							stack.shrink(1);
-							fired = true;
+						if (livingentity instanceof Mob && livingentity.level.isClientSide) {
+							((Mob) livingentity).spawnAnim();
+							((Mob) livingentity).spawnAnim();
 						}
+						livingentity.playSound(TFSounds.POWDER_USE, 1.0F + random.nextFloat(), random.nextFloat() * 0.7F + 0.3F);
+						stack.shrink(1);
+						fired = true;
 					}
-				});
+				}
 			}
 		}
 		return stack;
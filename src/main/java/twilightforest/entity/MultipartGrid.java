@@ -0,0 +1,149 @@
+package twilightforest.entity;
+
+import com.google.common.collect.MapMaker;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * The {@link TFPart}s of a level, filed by the section they stand in, so entity queries only look at the parts near
+ * their box instead of every part in the level. Parts refile themselves whenever they're moved.
+ * <p>
+ * Like vanilla's entity sections, a part is only filed under the section of its position, so queries grow their box by
+ * the biggest part seen in the level to catch parts sticking out of their section.
+ */
+public class MultipartGrid {
+	private static final ConcurrentMap<Level, MultipartGrid> GRIDS = new MapMaker().weakKeys().makeMap();
+
+	private final ConcurrentMap<Long, Set<TFPart<?>>> sections = new ConcurrentHashMap<>();
+	private volatile double maxPartSize;
+
+	public static MultipartGrid get(Level level) {
+		return GRIDS.computeIfAbsent(level, l -> new MultipartGrid());
+	}
+
+	@Nullable
+	public static MultipartGrid getIfPresent(Level level) {
+		return GRIDS.get(level);
+	}
+
+	public void add(TFPart<?> part) {
+		if (part.grid != null)
+			part.grid.remove(part);
+
+		double size = Math.max(part.getBbWidth(), part.getBbHeight());
+		if (size > this.maxPartSize)
+			this.maxPartSize = size;
+
+		part.grid = this;
+		part.gridSection = SectionPos.asLong(part.blockPosition());
+		this.file(part, part.gridSection);
+	}
+
+	public void remove(TFPart<?> part) {
+		if (part.grid != this)
+			return;
+		part.grid = null;
+		this.unfile(part, part.gridSection);
+	}
+
+	/**
+	 * Called by parts after every move, only touches the map if the part crossed into another section.
+	 */
+	void move(TFPart<?> part) {
+		long section = SectionPos.asLong(part.blockPosition());
+		if (section == part.gridSection)
+			return;
+
+		double size = Math.max(part.getBbWidth(), part.getBbHeight());
+		if (size > this.maxPartSize)
+			this.maxPartSize = size;
+
+		long oldSection = part.gridSection;
+		part.gridSection = section;
+		this.file(part, section);
+		this.unfile(part, oldSection);
+	}
+
+	/**
+	 * Adds every part intersecting the box and passing the predicate that the list doesn't have yet.
+	 */
+	public void collect(List<Entity> list, @Nullable Entity except, AABB box, @Nullable Predicate<? super Entity> predicate) {
+		if (this.sections.isEmpty())
+			return;
+
+		double grow = this.maxPartSize;
+		int minX = SectionPos.blockToSectionCoord(Mth.floor(box.minX - grow));
+		int minY = SectionPos.blockToSectionCoord(Mth.floor(box.minY - grow));
+		int minZ = SectionPos.blockToSectionCoord(Mth.floor(box.minZ - grow));
+		int maxX = SectionPos.blockToSectionCoord(Mth.floor(box.maxX + grow));
+		int maxY = SectionPos.blockToSectionCoord(Mth.floor(box.maxY + grow));
+		int maxZ = SectionPos.blockToSectionCoord(Mth.floor(box.maxZ + grow));
+
+		Set<Entity> found = null;
+		long spanned = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+		if (spanned > this.sections.size()) {
+			// huge boxes are cheaper to check against the few filled sections than the other way around
+			for (Map.Entry<Long, Set<TFPart<?>>> entry : this.sections.entrySet()) {
+				long key = entry.getKey();
+				int x = SectionPos.x(key);
+				int y = SectionPos.y(key);
+				int z = SectionPos.z(key);
+				if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ)
+					found = collect(entry.getValue(), found, list, except, box, predicate);
+			}
+		} else {
+			for (int x = minX; x <= maxX; x++) {
+				for (int z = minZ; z <= maxZ; z++) {
+					for (int y = minY; y <= maxY; y++) {
+						Set<TFPart<?>> parts = this.sections.get(SectionPos.asLong(x, y, z));
+						if (parts != null)
+							found = collect(parts, found, list, except, box, predicate);
+					}
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private static Set<Entity> collect(Set<TFPart<?>> parts, @Nullable Set<Entity> found, List<Entity> list, @Nullable Entity except, AABB box, @Nullable Predicate<? super Entity> predicate) {
+		for (TFPart<?> part : parts) {
+			if (part == except || !part.getBoundingBox().intersects(box) || (predicate != null && !predicate.test(part)))
+				continue;
+
+			// only built once something actually matches, most queries never get here
+			if (found == null)
+				found = new ReferenceOpenHashSet<>(list);
+			if (found.add(part))
+				list.add(part);
+		}
+		return found;
+	}
+
+	private void file(TFPart<?> part, long section) {
+		this.sections.compute(section, (key, parts) -> {
+			if (parts == null)
+				parts = ConcurrentHashMap.newKeySet();
+			parts.add(part);
+			return parts;
+		});
+	}
+
+	private void unfile(TFPart<?> part, long section) {
+		this.sections.computeIfPresent(section, (key, parts) -> {
+			parts.remove(part);
+			return parts.isEmpty() ? null : parts;
+		});
+	}
+}
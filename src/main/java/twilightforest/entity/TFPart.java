@@ -4,14 +4,13 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityDimensions;
 import net.minecraft.world.entity.Pose;
-import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.util.Mth;
-import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.entity.PartEntity;
 import twilightforest.TwilightForestMod;
 
+import javax.annotation.Nullable;
 import java.util.Objects;
 
 public abstract class TFPart<T extends Entity> extends PartEntity<T> {
@@ -32,6 +31,10 @@ public abstract class TFPart<T extends Entity> extends PartEntity<T> {
 	public int deathTime;
 	public int hurtTime;
 
+	@Nullable
+	MultipartGrid grid;
+	long gridSection;
+
 	public TFPart(T parent) {
 		super(parent);
 	}
@@ -89,6 +92,14 @@ public abstract class TFPart<T extends Entity> extends PartEntity<T> {
 		refreshDimensions();
 	}
 
+	@Override
+	public void setPos(double x, double y, double z) {
+		super.setPos(x, y, z);
+		// every other way of moving ends up in here too
+		if (this.grid != null)
+			this.grid.move(this);
+	}
+
 	@Override
 	public EntityDimensions getDimensions(Pose poseIn) {
 		return realSize;
@@ -104,25 +115,8 @@ public abstract class TFPart<T extends Entity> extends PartEntity<T> {
 		super.setId(id + 1);
 	}
 
-	public void writeData(FriendlyByteBuf buffer) {
-		buffer.writeDouble(getX());
-		buffer.writeDouble(getY());
-		buffer.writeDouble(getZ());
-		buffer.writeFloat(getYRot());
-		buffer.writeFloat(getXRot());
-		buffer.writeFloat(dimensions.width);
-		buffer.writeFloat(dimensions.height);
-		buffer.writeBoolean(dimensions.fixed);
-
-	}
-
-	public void readData(FriendlyByteBuf buffer) {
-		Vec3 vec = new Vec3(buffer.readDouble(), buffer.readDouble(), buffer.readDouble());
-		setPositionAndRotationDirect(vec.x, vec.y, vec.z, buffer.readFloat(), buffer.readFloat(), 3);
-		final float w = buffer.readFloat();
-		final float h = buffer.readFloat();
-		setSize(buffer.readBoolean() ? EntityDimensions.fixed(w, h) : EntityDimensions.scalable(w, h));
-		refreshDimensions();
+	public void updateSize(float width, float height, boolean fixed) {
+		setSize(fixed ? EntityDimensions.fixed(width, height) : EntityDimensions.scalable(width, height));
 	}
 
 	public static void assignPartIDs(Entity parent) {
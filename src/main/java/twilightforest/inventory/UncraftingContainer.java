@@ -9,7 +9,6 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.*;
 import net.minecraft.world.item.*;
 import net.minecraft.world.item.crafting.CraftingRecipe;
-import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.item.enchantment.Enchantment;
 import net.minecraft.world.item.enchantment.EnchantmentHelper;
@@ -22,7 +21,6 @@ import twilightforest.data.tags.ItemTagGenerator;
 import twilightforest.inventory.slot.AssemblySlot;
 import twilightforest.inventory.slot.UncraftingResultSlot;
 import twilightforest.inventory.slot.UncraftingSlot;
-import twilightforest.item.recipe.TFRecipes;
 import twilightforest.item.recipe.UncraftingRecipe;
 import twilightforest.util.TFItemStackUtils;
 
@@ -298,18 +296,16 @@ public class UncraftingContainer extends AbstractContainerMenu {
 		List<CraftingRecipe> recipes = new ArrayList<>();
 
 		if (!inputStack.isEmpty()) {
-			for (Recipe<?> recipe : world.getRecipeManager().getRecipes()) {
-				if (recipe instanceof CraftingRecipe rec &&
-						recipe.canCraftInDimensions(3, 3) &&
-						!recipe.getIngredients().isEmpty() &&
-						matches(inputStack, recipe.getResultItem()) &&
+			UncraftingRecipeIndex index = UncraftingRecipeIndex.get(world.getRecipeManager());
+			for (CraftingRecipe recipe : index.getCraftingRecipes(inputStack.getItem())) {
+				if (matches(inputStack, recipe.getResultItem()) &&
 						!TFConfig.COMMON_CONFIG.UNCRAFTING_STUFFS.disableUncraftingRecipes.get().contains(recipe.getId().toString())) {
 					if(TFConfig.COMMON_CONFIG.UNCRAFTING_STUFFS.flipUncraftingModIdList.get() == TFConfig.COMMON_CONFIG.UNCRAFTING_STUFFS.blacklistedUncraftingModIds.get().contains(recipe.getId().getNamespace())) {
-						recipes.add(rec);
+						recipes.add(recipe);
 					}
 				}
 			}
-			for (UncraftingRecipe uncraftingRecipe : world.getRecipeManager().getAllRecipesFor(TFRecipes.UNCRAFTING_RECIPE)) {
+			for (UncraftingRecipe uncraftingRecipe : index.getUncraftingRecipes(inputStack.getItem())) {
 				if (uncraftingRecipe.isItemStackAnIngredient(inputStack)) recipes.add(uncraftingRecipe);
 			}
 		}
@@ -0,0 +1,84 @@
+package twilightforest.inventory;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.CraftingRecipe;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import twilightforest.TwilightForestMod;
+import twilightforest.item.recipe.RecipeManagerCache;
+import twilightforest.item.recipe.TFRecipes;
+import twilightforest.item.recipe.UncraftingRecipe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every recipe the Uncrafting Table could offer for an item, looked up by that item. Crafting recipes are filed under
+ * their result, uncrafting recipes under each item their ingredient (tags included) accepts.
+ * <p>
+ * Built the first time a recipe manager is asked about, and thrown away when its recipes or the tags change. Config
+ * based filtering is left to {@link UncraftingContainer} so config changes show up right away.
+ */
+@Mod.EventBusSubscriber(modid = TwilightForestMod.ID)
+public class UncraftingRecipeIndex {
+	private static final RecipeManagerCache<UncraftingRecipeIndex> INDEXES = new RecipeManagerCache<>(UncraftingRecipeIndex::new);
+
+	private final Map<Item, List<CraftingRecipe>> craftingRecipes = new Reference2ObjectOpenHashMap<>();
+	private final Map<Item, List<UncraftingRecipe>> uncraftingRecipes = new Reference2ObjectOpenHashMap<>();
+
+	private UncraftingRecipeIndex(RecipeManager recipeManager) {
+		long start = System.nanoTime();
+
+		for (Recipe<?> recipe : recipeManager.getRecipes()) {
+			if (recipe instanceof CraftingRecipe rec && recipe.canCraftInDimensions(3, 3) && !recipe.getIngredients().isEmpty()) {
+				ItemStack result = recipe.getResultItem();
+				if (!result.isEmpty())
+					this.craftingRecipes.computeIfAbsent(result.getItem(), item -> new ArrayList<>()).add(rec);
+			}
+		}
+
+		for (UncraftingRecipe recipe : recipeManager.getAllRecipesFor(TFRecipes.UNCRAFTING_RECIPE)) {
+			for (ItemStack stack : recipe.getIngredient().getItems()) {
+				List<UncraftingRecipe> recipes = this.uncraftingRecipes.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+				// the same item can show up more than once in an ingredient
+				if (recipes.isEmpty() || recipes.get(recipes.size() - 1) != recipe)
+					recipes.add(recipe);
+			}
+		}
+
+		TwilightForestMod.LOGGER.info("Indexed uncrafting recipes for {} items in {} ms", this.craftingRecipes.size() + this.uncraftingRecipes.size(), (System.nanoTime() - start) / 1_000_000L);
+	}
+
+	public static UncraftingRecipeIndex get(RecipeManager recipeManager) {
+		return INDEXES.get(recipeManager);
+	}
+
+	public static void invalidate(RecipeManager recipeManager) {
+		INDEXES.invalidate(recipeManager);
+	}
+
+	@SubscribeEvent
+	public static void onTagsUpdated(TagsUpdatedEvent event) {
+		INDEXES.clear();
+	}
+
+	/**
+	 * @return crafting recipes whose result is the item, in recipe manager order
+	 */
+	public List<CraftingRecipe> getCraftingRecipes(Item item) {
+		return this.craftingRecipes.getOrDefault(item, List.of());
+	}
+
+	/**
+	 * @return uncrafting recipes whose ingredient accepts the item
+	 */
+	public List<UncraftingRecipe> getUncraftingRecipes(Item item) {
+		return this.uncraftingRecipes.getOrDefault(item, List.of());
+	}
+}
@@ -26,11 +26,12 @@ import net.minecraftforge.event.ForgeEventFactory;
 import net.minecraftforge.event.world.BlockEvent;
 import twilightforest.TFSounds;
 import twilightforest.TwilightForestMod;
-import twilightforest.item.recipe.TFRecipes;
+import twilightforest.item.recipe.CrumbleRecipe;
+import twilightforest.item.recipe.TransformationRecipeIndex;
 import twilightforest.util.TFStats;
 import twilightforest.util.WorldUtil;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.List;
 
 public class CrumbleHornItem extends Item {
 
@@ -96,9 +97,12 @@ public class CrumbleHornItem extends Item {
 	}
 
 	private int crumbleBlocksInAABB(Level world, LivingEntity living, AABB box) {
+		if (!(world instanceof ServerLevel level)) return 0;
+
+		TransformationRecipeIndex recipes = TransformationRecipeIndex.get(level.getRecipeManager());
 		int crumbled = 0;
 		for (BlockPos pos : WorldUtil.getAllInBB(box)) {
-			if (crumbleBlock(world, living, pos)) {
+			if (crumbleBlock(world, living, pos, recipes)) {
 				crumbled++;
 				if (living instanceof Player player && player instanceof ServerPlayer) {
 					player.awardStat(TFStats.BLOCKS_CRUMBLED);
@@ -108,49 +112,48 @@ public class CrumbleHornItem extends Item {
 		return crumbled;
 	}
 
-	private boolean crumbleBlock(Level world, LivingEntity living, BlockPos pos) {
+	private boolean crumbleBlock(Level world, LivingEntity living, BlockPos pos, TransformationRecipeIndex recipes) {
 
 		BlockState state = world.getBlockState(pos);
 		Block block = state.getBlock();
-		AtomicBoolean flag = new AtomicBoolean(false);
 
 		if (state.isAir()) return false;
 
+		List<CrumbleRecipe> crumbleRecipes = recipes.getCrumbleRecipes(block);
+		if (crumbleRecipes.isEmpty()) return false;
+
 		if(living instanceof Player) {
 			if (MinecraftForge.EVENT_BUS.post(new BlockEvent.BreakEvent(world, pos, state, (Player)living))) return false;
 		}
 
-		if(world instanceof ServerLevel level) {
-			level.getRecipeManager().getAllRecipesFor(TFRecipes.CRUMBLE_RECIPE).forEach(recipe -> {
-				if(flag.get()) return;
-				if(recipe.getResult().is(Blocks.AIR)) {
-					if (recipe.getInput().is(block) && world.random.nextInt(CHANCE_HARVEST) == 0 && !flag.get()) {
-						if (living instanceof Player) {
-							if (block.canHarvestBlock(state, world, pos, (Player) living)) {
-								world.removeBlock(pos, false);
-								block.playerDestroy(world, (Player) living, pos, state, world.getBlockEntity(pos), ItemStack.EMPTY);
-								world.levelEvent(2001, pos, Block.getId(state));
-								postTrigger(living);
-								flag.set(true);
-							}
-						} else if (ForgeEventFactory.getMobGriefingEvent(world, living)) {
-							world.destroyBlock(pos, true);
+		for (CrumbleRecipe recipe : crumbleRecipes) {
+			if(recipe.getResult().is(Blocks.AIR)) {
+				if (world.random.nextInt(CHANCE_HARVEST) == 0) {
+					if (living instanceof Player) {
+						if (block.canHarvestBlock(state, world, pos, (Player) living)) {
+							world.removeBlock(pos, false);
+							block.playerDestroy(world, (Player) living, pos, state, world.getBlockEntity(pos), ItemStack.EMPTY);
+							world.levelEvent(2001, pos, Block.getId(state));
 							postTrigger(living);
-							flag.set(true);
+							return true;
 						}
-					}
-				} else {
-					if (recipe.getInput().is(block) && world.random.nextInt(CHANCE_CRUMBLE) == 0 && !flag.get()) {
-						world.setBlock(pos, recipe.getResult().getBlock().withPropertiesOf(state), 3);
-						world.levelEvent(2001, pos, Block.getId(state));
+					} else if (ForgeEventFactory.getMobGriefingEvent(world, living)) {
+						world.destroyBlock(pos, true);
 						postTrigger(living);
-						flag.set(true);
+						return true;
 					}
 				}
-			});
+			} else {
+				if (world.random.nextInt(CHANCE_CRUMBLE) == 0) {
+					world.setBlock(pos, recipe.getResult().getBlock().withPropertiesOf(state), 3);
+					world.levelEvent(2001, pos, Block.getId(state));
+					postTrigger(living);
+					return true;
+				}
+			}
 		}
 
-		return flag.get();
+		return false;
 	}
 
 	private void postTrigger(LivingEntity living) {
@@ -1,7 +1,6 @@
 package twilightforest.item;
 
 import net.minecraft.ChatFormatting;
-import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.TextComponent;
 import net.minecraft.network.chat.TranslatableComponent;
@@ -16,7 +15,6 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.MapItem;
 import net.minecraft.world.item.TooltipFlag;
-import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.material.MaterialColor;
@@ -42,6 +40,11 @@ public class MagicMapItem extends MapItem {
 	public static final String STR_ID = "magicmap";
 	private static final Map<ResourceLocation, MapColorBrightness> BIOME_COLORS = new HashMap<>();
 
+	static {
+		// set up front, the colours are read from the magic map workers too
+		setupBiomeColors();
+	}
+
 	protected MagicMapItem(Properties props) {
 		super(props);
 	}
@@ -104,8 +107,6 @@ public class MagicMapItem extends MapItem {
 		return STR_ID + "_" + id;
 	}
 
-	private static final Map<ChunkPos, Biome[]> CACHE = new HashMap<>();
-
 	@Override
 	public void update(Level world, Entity viewer, MapItemSavedData data) {
 		if (world.dimension() == data.dimension && viewer instanceof Player && world instanceof ServerLevel serverLevel && TFGenerationSettings.usesTwilightChunkGenerator(serverLevel)) {
@@ -119,51 +120,41 @@ public class MagicMapItem extends MapItem {
 
 			int startX = (centerX / blocksPerPixel - 64) * biomesPerPixel;
 			int startZ = (centerZ / blocksPerPixel - 64) * biomesPerPixel;
-			Biome[] biomes = CACHE.computeIfAbsent(new ChunkPos(startX, startZ), pos -> {
-				Biome[] array = new Biome[128 * biomesPerPixel * 128 * biomesPerPixel];
-				for(int l = 0; l < 128 * biomesPerPixel; ++l) {
-					for(int i1 = 0; i1 < 128 * biomesPerPixel; ++i1) {
-						array[l * 128 * biomesPerPixel + i1] = world.getBiome(new BlockPos(startX * biomesPerPixel + i1 * biomesPerPixel, 0, startZ * biomesPerPixel + l * biomesPerPixel)).value();
-					}
-				}
-				return array;
-			});
+			MagicMapRaster raster = MagicMapRaster.getOrQueue(serverLevel, startX, startZ);
+			MagicMapRaster.Pending pending = null;
+			// every row when the raster is done, otherwise the rows drawn so far
+			int rowsReady = MagicMapRaster.SIZE;
+			if (raster == null) {
+				serverLevel.getProfiler().incrementCounter("twilightforest:magic_map_queue_depth", MagicMapRaster.getQueueDepth());
+				pending = MagicMapRaster.getPending(serverLevel, startX, startZ);
+				rowsReady = pending != null ? pending.getRowsReady() : 0;
+				if (rowsReady == 0)
+					return;
+			}
 
 			for (int xPixel = viewerX - viewRadiusPixels + 1; xPixel < viewerX + viewRadiusPixels; ++xPixel) {
 				for (int zPixel = viewerZ - viewRadiusPixels - 1; zPixel < viewerZ + viewRadiusPixels; ++zPixel) {
-					if (xPixel >= 0 && zPixel >= 0 && xPixel < 128 && zPixel < 128) {
+					if (xPixel >= 0 && zPixel >= 0 && xPixel < 128 && zPixel < rowsReady) {
 						int xPixelDist = xPixel - viewerX;
 						int zPixelDist = zPixel - viewerZ;
 						boolean shouldFuzz = xPixelDist * xPixelDist + zPixelDist * zPixelDist > (viewRadiusPixels - 2) * (viewRadiusPixels - 2);
 
-						Biome biome = biomes[xPixel * biomesPerPixel + zPixel * biomesPerPixel * 128 * biomesPerPixel];
-
-						// make streams more visible
-						Biome overBiome = biomes[xPixel * biomesPerPixel + zPixel * biomesPerPixel * 128 * biomesPerPixel + 1];
-						Biome downBiome = biomes[xPixel * biomesPerPixel + (zPixel * biomesPerPixel + 1) * 128 * biomesPerPixel];
-						biome = overBiome != null && BiomeKeys.STREAM.location().equals(overBiome.getRegistryName()) ? overBiome : downBiome != null && BiomeKeys.STREAM.location().equals(downBiome.getRegistryName()) ? downBiome : biome;
-
-						MapColorBrightness colorBrightness = this.getMapColorPerBiome(world, biome);
-
-						MaterialColor mapcolor = colorBrightness.color;
-						int brightness = colorBrightness.brightness;
-
 						if (zPixel >= 0 && xPixelDist * xPixelDist + zPixelDist * zPixelDist < viewRadiusPixels * viewRadiusPixels && (!shouldFuzz || (xPixel + zPixel & 1) != 0)) {
 							byte orgPixel = data.colors[xPixel + zPixel * 128];
-							byte ourPixel = (byte) (mapcolor.id * 4 + brightness);
+							byte ourPixel = raster != null ? raster.getColor(xPixel, zPixel) : pending.getColor(xPixel, zPixel);
 
 							if (orgPixel != ourPixel) {
 								data.setColor(xPixel, zPixel, ourPixel);
 								data.setDirty();
 							}
 
-							// look for TF features
-							int worldX = (centerX / blocksPerPixel + xPixel - 64) * blocksPerPixel;
-							int worldZ = (centerZ / blocksPerPixel + zPixel - 64) * blocksPerPixel;
-							if (TFFeature.isInFeatureChunk(worldX, worldZ)) {
+							// TF features were already found while drawing, they come once the whole raster is done
+							TFFeature feature = raster != null ? raster.getFeature(xPixel, zPixel) : null;
+							if (feature != null) {
+								int worldX = (centerX / blocksPerPixel + xPixel - 64) * blocksPerPixel;
+								int worldZ = (centerZ / blocksPerPixel + zPixel - 64) * blocksPerPixel;
 								byte mapX = (byte) ((worldX - centerX) / (float) blocksPerPixel * 2F);
 								byte mapZ = (byte) ((worldZ - centerZ) / (float) blocksPerPixel * 2F);
-								TFFeature feature = TFFeature.getFeatureAt(worldX, worldZ, (ServerLevel) world);
 								TFMagicMapData tfData = (TFMagicMapData) data;
 								tfData.tfDecorations.add(new TFMagicMapData.TFMapDecoration(feature, mapX, mapZ, (byte) 8));
 								//TwilightForestMod.LOGGER.info("Found feature at {}, {}. Placing it on the map at {}, {}", worldX, worldZ, mapX, mapZ);
@@ -175,10 +166,12 @@ public class MagicMapItem extends MapItem {
 		}
 	}
 
-	private MapColorBrightness getMapColorPerBiome(Level world, Biome biome) {
-		if (BIOME_COLORS.isEmpty()) {
-			setupBiomeColors();
-		}
+	static byte getPixelColor(@Nullable Biome biome) {
+		MapColorBrightness colorBrightness = getMapColorPerBiome(biome);
+		return (byte) (colorBrightness.color.id * 4 + colorBrightness.brightness);
+	}
+
+	private static MapColorBrightness getMapColorPerBiome(@Nullable Biome biome) {
 		if(biome == null)
 			return new MapColorBrightness(MaterialColor.COLOR_BLACK);
 		ResourceLocation key = biome.getRegistryName();
@@ -218,10 +211,6 @@ public class MagicMapItem extends MapItem {
 	}
 
 	public static int getBiomeColor(Biome biome) {
-		if (BIOME_COLORS.isEmpty()) {
-			setupBiomeColors();
-		}
-
 		MapColorBrightness c = BIOME_COLORS.get(ForgeRegistries.BIOMES.getKey(biome));
 
 		return c != null ? getMapColor(c) : 0xFF000000;
@@ -0,0 +1,245 @@
+package twilightforest.item;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeSource;
+import net.minecraft.world.level.biome.Climate;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import twilightforest.TwilightForestMod;
+import twilightforest.world.components.biomesources.TFBiomeProvider;
+import twilightforest.world.registration.TFFeature;
+import twilightforest.world.registration.biomes.BiomeKeys;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The biome shown by each of the 128x128 pixels of a magic map, stored as indices into a small per-map palette, along
+ * with the map colour of each pixel and the features found in the area. Streams already win over whatever is next to
+ * them, so this is all {@link MagicMapItem} has to look at.
+ * <p>
+ * Rasters are built on a couple of background threads straight from the biome source and handed back through the cache,
+ * so opening a fresh map never stalls the server. Until one is done, the rows finished so far can be drawn from its
+ * {@link Pending} preview. They are shared between all maps of the same area and dimension, and
+ * only the most recently used ones are kept.
+ */
+public class MagicMapRaster {
+	public static final int SIZE = 128;
+	private static final int BIOMES_PER_PIXEL = 4;
+	// 16 KiB a raster
+	private static final int MAX_CACHED = 256;
+	private static final int MAX_JOBS = 2;
+	private static final int MAX_QUEUED = 16;
+
+	private static final Map<Key, MagicMapRaster> CACHE = new LinkedHashMap<>(16, 0.75F, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, MagicMapRaster> eldest) {
+			return this.size() > MAX_CACHED;
+		}
+	};
+	private static final Map<Key, Pending> QUEUED = new HashMap<>();
+	private static final ExecutorService WORKERS = Executors.newFixedThreadPool(MAX_JOBS, new ThreadFactoryBuilder().setNameFormat("TF Magic Map Worker-%d").setDaemon(true).build());
+
+	private final Biome[] palette;
+	private final byte[] paletteColors;
+	private final byte[] pixels;
+	private final Int2ObjectMap<TFFeature> features;
+
+	private MagicMapRaster(Biome[] palette, byte[] paletteColors, byte[] pixels, Int2ObjectMap<TFFeature> features) {
+		this.palette = palette;
+		this.paletteColors = paletteColors;
+		this.pixels = pixels;
+		this.features = features;
+	}
+
+	@Nullable
+	public Biome getBiome(int xPixel, int zPixel) {
+		return this.palette[this.pixels[xPixel + zPixel * SIZE] & 0xFF];
+	}
+
+	public byte getColor(int xPixel, int zPixel) {
+		return this.paletteColors[this.pixels[xPixel + zPixel * SIZE] & 0xFF];
+	}
+
+	/**
+	 * @return the feature whose center chunk this pixel covers, if any
+	 */
+	@Nullable
+	public TFFeature getFeature(int xPixel, int zPixel) {
+		return this.features.get(xPixel + zPixel * SIZE);
+	}
+
+	/**
+	 * Hands out the raster for a map if it's ready, or queues it up to be built otherwise. Once the queue is full,
+	 * new areas are turned away until it drains, their maps will just ask again on a later update.
+	 *
+	 * @param startX quart X of the map's top left corner
+	 * @param startZ quart Z of the map's top left corner
+	 * @return null while the raster is still being built
+	 */
+	@Nullable
+	public static MagicMapRaster getOrQueue(ServerLevel level, int startX, int startZ) {
+		Key key = new Key(level.dimension(), level.getSeed(), startX, startZ);
+		Pending pending = new Pending();
+		synchronized (CACHE) {
+			MagicMapRaster raster = CACHE.get(key);
+			if (raster != null || QUEUED.size() >= MAX_QUEUED || QUEUED.putIfAbsent(key, pending) != null)
+				return raster;
+		}
+
+		CompletableFuture.supplyAsync(() -> sample(level, startX, startZ, pending), WORKERS).whenComplete((raster, error) -> {
+			synchronized (CACHE) {
+				QUEUED.remove(key);
+				if (raster != null)
+					CACHE.put(key, raster);
+			}
+			if (error != null)
+				TwilightForestMod.LOGGER.error("Failed to draw magic map area at {}, {}", startX * BIOMES_PER_PIXEL, startZ * BIOMES_PER_PIXEL, error);
+		});
+		return null;
+	}
+
+	/**
+	 * @return the raster being built for the map, to draw the rows it has finished so far, or null if it isn't queued
+	 */
+	@Nullable
+	public static Pending getPending(ServerLevel level, int startX, int startZ) {
+		synchronized (CACHE) {
+			return QUEUED.get(new Key(level.dimension(), level.getSeed(), startX, startZ));
+		}
+	}
+
+	/**
+	 * @return how many rasters are waiting to be or being built
+	 */
+	public static int getQueueDepth() {
+		synchronized (CACHE) {
+			return QUEUED.size();
+		}
+	}
+
+	private static MagicMapRaster sample(ServerLevel level, int startX, int startZ, Pending pending) {
+		int width = SIZE * BIOMES_PER_PIXEL;
+		ChunkGenerator generator = level.getChunkSource().getGenerator();
+
+		if (generator.getBiomeSource() instanceof TFBiomeProvider provider) {
+			// each pixel only looks at its corner quart and the ones right after it along x and z, so two rows of quarts per pixel row will do
+			Biome[] rows = new Biome[width * 2];
+			for (int zPixel = 0; zPixel < SIZE; zPixel++) {
+				provider.getNoiseBiomes(startX, startZ + zPixel * BIOMES_PER_PIXEL, width, 2, rows);
+				for (int xPixel = 0; xPixel < SIZE; xPixel++) {
+					int x = xPixel * BIOMES_PER_PIXEL;
+					pending.set(xPixel, zPixel, rows[x], rows[x + 1], rows[x + width]);
+				}
+				pending.rowsReady = zPixel + 1;
+			}
+		} else {
+			BiomeSource source = generator.getBiomeSource();
+			Climate.Sampler sampler = generator.climateSampler();
+			for (int zPixel = 0; zPixel < SIZE; zPixel++) {
+				for (int xPixel = 0; xPixel < SIZE; xPixel++) {
+					int x = startX + xPixel * BIOMES_PER_PIXEL;
+					int z = startZ + zPixel * BIOMES_PER_PIXEL;
+					pending.set(xPixel, zPixel, source.getNoiseBiome(x, 0, z, sampler).value(), source.getNoiseBiome(x + 1, 0, z, sampler).value(), source.getNoiseBiome(x, 0, z + 1, sampler).value());
+				}
+				pending.rowsReady = zPixel + 1;
+			}
+		}
+
+		// look for TF features, a pixel is exactly one chunk
+		int startChunkX = startX / BIOMES_PER_PIXEL;
+		int startChunkZ = startZ / BIOMES_PER_PIXEL;
+		for (int zPixel = 0; zPixel < SIZE; zPixel++) {
+			for (int xPixel = 0; xPixel < SIZE; xPixel++) {
+				int worldX = (startChunkX + xPixel) << 4;
+				int worldZ = (startChunkZ + zPixel) << 4;
+				if (TFFeature.isInFeatureChunk(worldX, worldZ)) {
+					pending.features.put(xPixel + zPixel * SIZE, TFFeature.forecastFeatureAt(worldX, worldZ, level));
+				}
+			}
+		}
+
+		return pending.build();
+	}
+
+	private static boolean isStream(@Nullable Biome biome) {
+		return biome != null && BiomeKeys.STREAM.location().equals(biome.getRegistryName());
+	}
+
+	/**
+	 * A raster still being built. Its pixel colours can be read from any thread, up to {@link #getRowsReady()}.
+	 */
+	public static class Pending {
+		private final List<Biome> palette = new ArrayList<>();
+		private final Map<Biome, Byte> ids = new IdentityHashMap<>();
+		private final byte[] pixels = new byte[SIZE * SIZE];
+		// only kept while building, for the preview
+		private final byte[] colors = new byte[SIZE * SIZE];
+		private final Int2ObjectMap<TFFeature> features = new Int2ObjectOpenHashMap<>();
+		// written after each row, which publishes that row's colours
+		private volatile int rowsReady;
+
+		private Pending() {
+			// index 0 is left for biomes that can't be drawn
+			this.palette.add(null);
+		}
+
+		private void set(int xPixel, int zPixel, Biome biome, Biome overBiome, Biome downBiome) {
+			// make streams more visible
+			Biome shown = isStream(overBiome) ? overBiome : isStream(downBiome) ? downBiome : biome;
+			byte id = this.getId(shown);
+			this.pixels[xPixel + zPixel * SIZE] = id;
+			this.colors[xPixel + zPixel * SIZE] = MagicMapItem.getPixelColor(this.palette.get(id & 0xFF));
+		}
+
+		/**
+		 * @return how many rows, from the top of the map, have their colours ready
+		 */
+		public int getRowsReady() {
+			return this.rowsReady;
+		}
+
+		public byte getColor(int xPixel, int zPixel) {
+			return this.colors[xPixel + zPixel * SIZE];
+		}
+
+		private byte getId(@Nullable Biome biome) {
+			if (biome == null)
+				return 0;
+			Byte id = this.ids.get(biome);
+			if (id == null) {
+				// a map can't tell that many biomes apart anyway, anything past the palette is drawn as unknown
+				if (this.palette.size() > 255)
+					return 0;
+				id = (byte) this.palette.size();
+				this.palette.add(biome);
+				this.ids.put(biome, id);
+			}
+			return id;
+		}
+
+		private MagicMapRaster build() {
+			byte[] colors = new byte[this.palette.size()];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = MagicMapItem.getPixelColor(this.palette.get(i));
+			}
+			return new MagicMapRaster(this.palette.toArray(new Biome[0]), colors, this.pixels, this.features);
+		}
+	}
+
+	private record Key(ResourceKey<Level> dimension, long seed, int x, int z) {
+	}
+}
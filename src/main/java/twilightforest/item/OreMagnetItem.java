@@ -1,5 +1,11 @@
 package twilightforest.item;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.Registry;
@@ -38,6 +44,19 @@ import java.util.stream.Collectors;
 public class OreMagnetItem extends Item {
 
 	private static final float WIGGLE = 10F;
+	// straight ahead first, then around it
+	private static final float[][] WIGGLES = {
+			{0, 0},
+			{WIGGLE, 0},
+			{WIGGLE, WIGGLE},
+			{0, WIGGLE},
+			{-WIGGLE, WIGGLE},
+			{-WIGGLE, 0},
+			{-WIGGLE, -WIGGLE},
+			{0, -WIGGLE},
+			{WIGGLE, -WIGGLE}
+	};
+	private static final int MAX_VEIN = 24;
 
 	protected OreMagnetItem(Properties props) {
 		super(props);
@@ -77,31 +96,11 @@ public class OreMagnetItem extends Item {
 		int useTime = this.getUseDuration(stack) - useRemaining;
 
 		if (!world.isClientSide && useTime > 10) {
-			int moved = doMagnet(world, living, 0, 0);
-
-			if (moved == 0) {
-				moved = doMagnet(world, living, WIGGLE, 0);
-			}
-			if (moved == 0) {
-				moved = doMagnet(world, living, WIGGLE, WIGGLE);
-			}
-			if (moved == 0) {
-				moved = doMagnet(world, living, 0, WIGGLE);
-			}
-			if (moved == 0) {
-				moved = doMagnet(world, living, -WIGGLE, WIGGLE);
-			}
-			if (moved == 0) {
-				moved = doMagnet(world, living, -WIGGLE, 0);
-			}
-			if (moved == 0) {
-				moved = doMagnet(world, living, -WIGGLE, -WIGGLE);
-			}
-			if (moved == 0) {
-				moved = doMagnet(world, living, 0, -WIGGLE);
-			}
-			if (moved == 0) {
-				moved = doMagnet(world, living, WIGGLE, -WIGGLE);
+			// the rays all start at the player, so they share what they've already looked at
+			StateCache states = new StateCache(world);
+			int moved = 0;
+			for (int i = 0; i < WIGGLES.length && moved == 0; i++) {
+				moved = doMagnet(states, living, WIGGLES[i][0], WIGGLES[i][1]);
 			}
 
 			if (moved > 0) {
@@ -130,30 +129,35 @@ public class OreMagnetItem extends Item {
 	/**
 	 * Magnet from the player's position and facing to the specified offset
 	 */
-	private int doMagnet(Level world, LivingEntity living, float yawOffset, float pitchOffset) {
+	private int doMagnet(StateCache states, LivingEntity living, float yawOffset, float pitchOffset) {
 		// find vector 32 blocks from look
 		double range = 32.0D;
 		Vec3 srcVec = new Vec3(living.getX(), living.getY() + living.getEyeHeight(), living.getZ());
 		Vec3 lookVec = getOffsetLook(living, yawOffset, pitchOffset);
 		Vec3 destVec = srcVec.add(lookVec.x * range, lookVec.y * range, lookVec.z * range);
 
-		return doMagnet(world, new BlockPos(srcVec), new BlockPos(destVec));
+		return doMagnet(states, new BlockPos(srcVec), new BlockPos(destVec));
 	}
 
 	public static int doMagnet(Level world, BlockPos usePos, BlockPos destPos) {
+		return doMagnet(new StateCache(world), usePos, destPos);
+	}
+
+	private static int doMagnet(StateCache states, BlockPos usePos, BlockPos destPos) {
 		// FIXME Find a better place to invoke this!
 		initOre2BlockMap();
 
+		Level world = states.level;
 		int blocksMoved = 0;
 
 		// find some ore?
 		BlockState attactedOreBlock = Blocks.AIR.defaultBlockState();
 		BlockState replacementBlock = Blocks.AIR.defaultBlockState();
 		BlockPos foundPos = null;
-        BlockPos basePos = null;
+		BlockPos basePos = null;
 
 		for (BlockPos coord : new VoxelBresenhamIterator(usePos, destPos)) {
-			BlockState searchState = world.getBlockState(coord);
+			BlockState searchState = states.get(coord);
 
 			// keep track of where the dirt/stone we first find is.
 			if (basePos == null) {
@@ -161,32 +165,38 @@ public class OreMagnetItem extends Item {
 					basePos = coord;
 				}
 				// This ordering is so that the base pos is found first before we pull ores - pushing ores away is a baaaaad idea!
-			} else if (foundPos == null && searchState.getBlock() != Blocks.AIR && isOre(searchState.getBlock()) && world.getBlockEntity(coord) == null) {
+			} else if (searchState.getBlock() != Blocks.AIR && isOre(searchState.getBlock()) && world.getBlockEntity(coord) == null) {
 				attactedOreBlock = searchState;
 				replacementBlock = ORE_TO_BLOCK_REPLACEMENTS.getOrDefault(attactedOreBlock.getBlock(), Blocks.STONE).defaultBlockState();
 				foundPos = coord;
+				// nothing further along the line can change the outcome
+				break;
 			}
 		}
 
 		if (basePos != null && foundPos != null && attactedOreBlock.getBlock() != Blocks.AIR) {
 			// find the whole vein
-			Set<BlockPos> veinBlocks = new HashSet<>();
-			findVein(world, foundPos, attactedOreBlock, veinBlocks);
+			LongList veinBlocks = findVein(states, foundPos, attactedOreBlock);
 
 			// move it up into minable blocks or dirt
 			int offX = basePos.getX() - foundPos.getX();
 			int offY = basePos.getY() - foundPos.getY();
 			int offZ = basePos.getZ() - foundPos.getZ();
 
-			for (BlockPos coord : veinBlocks) {
-				BlockPos replacePos = coord.offset(offX, offY, offZ);
+			BlockPos.MutableBlockPos coord = new BlockPos.MutableBlockPos();
+			BlockPos.MutableBlockPos replacePos = new BlockPos.MutableBlockPos();
+			for (int i = 0; i < veinBlocks.size(); i++) {
+				coord.set(veinBlocks.getLong(i));
+				replacePos.setWithOffset(coord, offX, offY, offZ);
+				// not from the cache, earlier moves may have changed it
 				BlockState replaceState = world.getBlockState(replacePos);
 
 				if (isReplaceable(replaceState) || replaceState.getMaterial().isReplaceable() || replaceState.isAir()) {
-					world.setBlock(coord, replacementBlock, 2);
+					// no neighbour updates, the changes reach clients together as one update per chunk section
+					world.setBlock(coord, replacementBlock, Block.UPDATE_CLIENTS);
 
 					// set close to ore material
-					world.setBlock(replacePos, attactedOreBlock, 2);
+					world.setBlock(replacePos, attactedOreBlock, Block.UPDATE_CLIENTS);
 					blocksMoved++;
 				}
 			}
@@ -212,29 +222,56 @@ public class OreMagnetItem extends Item {
 		return state.is(BlockTagGenerator.ORE_MAGNET_SAFE_REPLACE_BLOCK);
 	}
 
-	private static boolean findVein(Level world, BlockPos here, BlockState oreState, Set<BlockPos> veinBlocks) {
-		// is this already on the list?
-		if (veinBlocks.contains(here)) {
-			return false;
+	/**
+	 * Walks the vein depth first from the starting block, in the same order as searching it recursively would.
+	 *
+	 * @return up to {@link #MAX_VEIN} packed positions, in the order they were found
+	 */
+	private static LongList findVein(StateCache states, BlockPos start, BlockState oreState) {
+		LongList veinBlocks = new LongArrayList(MAX_VEIN);
+		LongSet visited = new LongOpenHashSet(MAX_VEIN);
+		LongArrayList stack = new LongArrayList();
+		BlockPos.MutableBlockPos here = new BlockPos.MutableBlockPos();
+		Direction[] directions = Direction.values();
+		stack.push(start.asLong());
+
+		while (!stack.isEmpty() && veinBlocks.size() < MAX_VEIN) {
+			long pos = stack.popLong();
+			// is this already on the list? otherwise, check if we're still in the vein
+			if (visited.contains(pos) || states.get(here.set(pos)) != oreState)
+				continue;
+
+			visited.add(pos);
+			veinBlocks.add(pos);
+
+			// pushed backwards so they come off in the usual order
+			for (int i = directions.length - 1; i >= 0; i--) {
+				stack.push(BlockPos.offset(pos, directions[i]));
+			}
 		}
 
-		// let's limit it to 24 blocks at a time
-		if (veinBlocks.size() >= 24) {
-			return false;
-		}
+		return veinBlocks;
+	}
 
-		// otherwise, check if we're still in the vein
-		if (world.getBlockState(here) == oreState) {
-			veinBlocks.add(here);
+	/**
+	 * Block states looked up along the magnet's rays, for as long as nothing has been moved yet.
+	 */
+	private static class StateCache {
+		private final Level level;
+		private final Long2ObjectMap<BlockState> states = new Long2ObjectOpenHashMap<>();
 
-			// recurse in 6 directions
-			for (Direction e : Direction.values()) {
-				findVein(world, here.relative(e), oreState, veinBlocks);
-			}
+		private StateCache(Level level) {
+			this.level = level;
+		}
 
-			return true;
-		} else {
-			return false;
+		private BlockState get(BlockPos pos) {
+			long key = pos.asLong();
+			BlockState state = this.states.get(key);
+			if (state == null) {
+				state = this.level.getBlockState(pos);
+				this.states.put(key, state);
+			}
+			return state;
 		}
 	}
 
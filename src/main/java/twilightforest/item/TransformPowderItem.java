@@ -15,11 +15,11 @@ import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 import twilightforest.TFSounds;
 import twilightforest.TwilightForestMod;
-import twilightforest.item.recipe.TFRecipes;
+import twilightforest.item.recipe.TransformPowderRecipe;
+import twilightforest.item.recipe.TransformationRecipeIndex;
 
 import javax.annotation.Nonnull;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TransformPowderItem extends Item {
 
@@ -32,47 +32,40 @@ public class TransformPowderItem extends Item {
 		if (!target.isAlive()) {
 			return InteractionResult.PASS;
 		}
-		AtomicBoolean flag = new AtomicBoolean(false);
-
-		player.level.getRecipeManager().getAllRecipesFor(TFRecipes.TRANSFORM_POWDER_RECIPE).forEach((recipe) -> {
-			if(flag.get()) return;
-			if(recipe.getInput() == target.getType()) {
-				EntityType<?> type = recipe.getResult();
-				if (type == null) {
-					return;
-				}
-
-				Entity newEntity = type.create(player.level);
-				if (newEntity == null) {
-					return;
-				}
-
-				newEntity.moveTo(target.getX(), target.getY(), target.getZ(), target.getYRot(), target.getXRot());
-				if (newEntity instanceof Mob mob && target.level instanceof ServerLevelAccessor world) {
-					mob.finalizeSpawn(world, target.level.getCurrentDifficultyAt(target.blockPosition()), MobSpawnType.CONVERSION, null, null);
-				}
-
-				try { // try copying what can be copied
-					UUID uuid = newEntity.getUUID();
-					newEntity.load(target.saveWithoutId(newEntity.saveWithoutId(new CompoundTag())));
-					newEntity.setUUID(uuid);
-				} catch (Exception e) {
-					TwilightForestMod.LOGGER.warn("Couldn't transform entity NBT data", e);
-				}
-
-				target.level.addFreshEntity(newEntity);
-				target.discard();
-				stack.shrink(1);
-
-				if (target instanceof Mob) {
-					((Mob) target).spawnAnim();
-					((Mob) target).spawnAnim();
-				}
-				target.playSound(TFSounds.POWDER_USE, 1.0F + target.level.random.nextFloat(), target.level.random.nextFloat() * 0.7F + 0.3F);
-				flag.set(true);
-			}
-		});
-		return flag.get() ? InteractionResult.SUCCESS : InteractionResult.PASS;
+		TransformPowderRecipe recipe = TransformationRecipeIndex.get(player.level.getRecipeManager()).getTransformRecipe(target.getType());
+		if (recipe == null) {
+			return InteractionResult.PASS;
+		}
+
+		EntityType<?> type = recipe.getResult();
+		Entity newEntity = type.create(player.level);
+		if (newEntity == null) {
+			return InteractionResult.PASS;
+		}
+
+		newEntity.moveTo(target.getX(), target.getY(), target.getZ(), target.getYRot(), target.getXRot());
+		if (newEntity instanceof Mob mob && target.level instanceof ServerLevelAccessor world) {
+			mob.finalizeSpawn(world, target.level.getCurrentDifficultyAt(target.blockPosition()), MobSpawnType.CONVERSION, null, null);
+		}
+
+		try { // try copying what can be copied
+			UUID uuid = newEntity.getUUID();
+			newEntity.load(target.saveWithoutId(newEntity.saveWithoutId(new CompoundTag())));
+			newEntity.setUUID(uuid);
+		} catch (Exception e) {
+			TwilightForestMod.LOGGER.warn("Couldn't transform entity NBT data", e);
+		}
+
+		target.level.addFreshEntity(newEntity);
+		target.discard();
+		stack.shrink(1);
+
+		if (target instanceof Mob) {
+			((Mob) target).spawnAnim();
+			((Mob) target).spawnAnim();
+		}
+		target.playSound(TFSounds.POWDER_USE, 1.0F + target.level.random.nextFloat(), target.level.random.nextFloat() * 0.7F + 0.3F);
+		return InteractionResult.SUCCESS;
 	}
 
 	@Nonnull
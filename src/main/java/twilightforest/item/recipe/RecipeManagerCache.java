@@ -0,0 +1,42 @@
+package twilightforest.item.recipe;
+
+import net.minecraft.world.item.crafting.RecipeManager;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Something worked out from a recipe manager's recipes, built the first time that manager is asked about. The server
+ * gets a new manager on every reload, the client's has to be invalidated when recipes are synced to it.
+ */
+public class RecipeManagerCache<T> {
+	private final Map<RecipeManager, T> values = new WeakHashMap<>();
+	private final Function<RecipeManager, T> factory;
+
+	public RecipeManagerCache(Function<RecipeManager, T> factory) {
+		this.factory = factory;
+	}
+
+	public T get(RecipeManager recipeManager) {
+		// integrated servers share this with the client, so both threads can end up in here
+		synchronized (this.values) {
+			return this.values.computeIfAbsent(recipeManager, this.factory);
+		}
+	}
+
+	/**
+	 * The client reloads recipes into the same manager, so that needs to be told apart from a new one.
+	 */
+	public void invalidate(RecipeManager recipeManager) {
+		synchronized (this.values) {
+			this.values.remove(recipeManager);
+		}
+	}
+
+	public void clear() {
+		synchronized (this.values) {
+			this.values.clear();
+		}
+	}
+}
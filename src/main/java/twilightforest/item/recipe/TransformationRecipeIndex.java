@@ -0,0 +1,55 @@
+package twilightforest.item.recipe;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.block.Block;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Crumble recipes looked up by the block they crumble, and Transformation Powder recipes by the entity they transform,
+ * so the Crumble Horn and the powder don't walk every recipe for each block or entity they touch.
+ * <p>
+ * Kept per recipe manager, like the uncrafting index.
+ */
+public class TransformationRecipeIndex {
+	private static final RecipeManagerCache<TransformationRecipeIndex> INDEXES = new RecipeManagerCache<>(TransformationRecipeIndex::new);
+
+	private final Map<Block, List<CrumbleRecipe>> crumbleRecipes = new Reference2ObjectOpenHashMap<>();
+	private final Map<EntityType<?>, TransformPowderRecipe> transformRecipes = new Reference2ObjectOpenHashMap<>();
+
+	private TransformationRecipeIndex(RecipeManager recipeManager) {
+		for (CrumbleRecipe recipe : recipeManager.getAllRecipesFor(TFRecipes.CRUMBLE_RECIPE)) {
+			this.crumbleRecipes.computeIfAbsent(recipe.getInput().getBlock(), block -> new ArrayList<>(1)).add(recipe);
+		}
+
+		for (TransformPowderRecipe recipe : recipeManager.getAllRecipesFor(TFRecipes.TRANSFORM_POWDER_RECIPE)) {
+			// the first recipe for an entity is the one that always won
+			this.transformRecipes.putIfAbsent(recipe.getInput(), recipe);
+		}
+	}
+
+	public static TransformationRecipeIndex get(RecipeManager recipeManager) {
+		return INDEXES.get(recipeManager);
+	}
+
+	public static void invalidate(RecipeManager recipeManager) {
+		INDEXES.invalidate(recipeManager);
+	}
+
+	/**
+	 * @return crumble recipes for the block, in recipe manager order
+	 */
+	public List<CrumbleRecipe> getCrumbleRecipes(Block block) {
+		return this.crumbleRecipes.getOrDefault(block, List.of());
+	}
+
+	@Nullable
+	public TransformPowderRecipe getTransformRecipe(EntityType<?> type) {
+		return this.transformRecipes.get(type);
+	}
+}
@@ -0,0 +1,312 @@
+package twilightforest.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraftforge.entity.PartEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.PacketDistributor;
+import twilightforest.TwilightForestMod;
+import twilightforest.entity.TFPart;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the clients' {@link TFPart}s in line with the server's. Only parts that moved, turned, changed size or have
+ * dirty entity data since the last update are sent, and every multipart entity a player tracks goes out in one packet
+ * per tick. Players that just started tracking an entity get all of its parts once.
+ * <p>
+ * Each entity's section is written once and shared by everyone tracking it: the entity id and its position, then the
+ * changed parts. A part's position is sent as 1/256 block offsets from the entity as long as it's within 128 blocks of
+ * it, its rotation the same way vanilla sends entity rotation.
+ */
+@Mod.EventBusSubscriber(modid = TwilightForestMod.ID)
+public class MultipartSync {
+	static final int MOVED = 1;
+	static final int RESIZED = 2;
+	static final int DATA = 4;
+	static final int FAR = 8;
+	static final double POSITION_SCALE = 256.0D;
+
+	private static final int STATS_INTERVAL = 20;
+
+	private static final Map<Entity, Tracked> TRACKED = new Reference2ObjectOpenHashMap<>();
+	private static final Set<Tracked> QUEUED = new ReferenceLinkedOpenHashSet<>();
+	private static Object2LongMap<EntityType<?>> bytesSent = new Object2LongOpenHashMap<>();
+	private static Object2LongMap<EntityType<?>> bytesLastSecond = new Object2LongOpenHashMap<>();
+	private static int statsTicks;
+
+	/**
+	 * Called whenever vanilla sends the entity's own data, the entity's parts go out with the next batch.
+	 */
+	public static void queue(Entity entity) {
+		Tracked tracked = TRACKED.get(entity);
+		if (tracked != null)
+			QUEUED.add(tracked);
+	}
+
+	public static void forget(Entity entity) {
+		Tracked tracked = TRACKED.remove(entity);
+		if (tracked != null)
+			QUEUED.remove(tracked);
+	}
+
+	/**
+	 * @return bytes sent for each entity type over the last second, counting every player they were sent to
+	 */
+	public static Object2LongMap<EntityType<?>> getBytesLastSecond() {
+		return bytesLastSecond;
+	}
+
+	@SubscribeEvent
+	public static void startTracking(PlayerEvent.StartTracking event) {
+		Entity entity = event.getTarget();
+		if (!entity.isMultipartEntity() || !(event.getPlayer() instanceof ServerPlayer player))
+			return;
+
+		Tracked tracked = TRACKED.computeIfAbsent(entity, Tracked::new);
+		tracked.players.add(player);
+		tracked.needsAll.add(player);
+		QUEUED.add(tracked);
+	}
+
+	@SubscribeEvent
+	public static void stopTracking(PlayerEvent.StopTracking event) {
+		Tracked tracked = TRACKED.get(event.getTarget());
+		if (tracked == null)
+			return;
+
+		tracked.players.remove(event.getPlayer());
+		tracked.needsAll.remove(event.getPlayer());
+		if (tracked.players.isEmpty())
+			forget(event.getTarget());
+	}
+
+	@SubscribeEvent
+	public static void sendUpdates(TickEvent.ServerTickEvent event) {
+		if (event.phase != TickEvent.Phase.END)
+			return;
+
+		if (++statsTicks >= STATS_INTERVAL) {
+			statsTicks = 0;
+			bytesLastSecond = bytesSent;
+			bytesSent = new Object2LongOpenHashMap<>();
+		}
+
+		if (QUEUED.isEmpty())
+			return;
+
+		Reference2ObjectMap<ServerPlayer, List<ByteBuf>> packets = new Reference2ObjectLinkedOpenHashMap<>();
+		for (Tracked tracked : QUEUED) {
+			if (tracked.entity.isRemoved())
+				continue;
+
+			ByteBuf changes = tracked.writeChanges();
+			ByteBuf all = tracked.needsAll.isEmpty() ? null : tracked.writeAll();
+			for (ServerPlayer player : tracked.players) {
+				ByteBuf section = all != null && tracked.needsAll.contains(player) ? all : changes;
+				if (section != null) {
+					packets.computeIfAbsent(player, p -> new ArrayList<>()).add(section);
+					bytesSent.mergeLong(tracked.entity.getType(), section.readableBytes(), Long::sum);
+				}
+			}
+			tracked.needsAll.clear();
+		}
+		QUEUED.clear();
+
+		for (Reference2ObjectMap.Entry<ServerPlayer, List<ByteBuf>> entry : packets.reference2ObjectEntrySet()) {
+			ServerPlayer player = entry.getKey();
+			TFPacketHandler.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), new UpdateTFMultipartPacket(entry.getValue()));
+		}
+	}
+
+	private static class Tracked {
+		private final Entity entity;
+		private final Set<ServerPlayer> players = new ReferenceOpenHashSet<>();
+		private final Set<ServerPlayer> needsAll = new ReferenceOpenHashSet<>();
+		// What was last sent for each part, indexed like the entity's parts
+		@Nullable
+		private PartState[] sent;
+
+		private Tracked(Entity entity) {
+			this.entity = entity;
+		}
+
+		/**
+		 * @return the parts that changed since the last call, or null if none did
+		 */
+		@Nullable
+		private ByteBuf writeChanges() {
+			PartEntity<?>[] parts = this.entity.getParts();
+			if (parts == null)
+				return null;
+			if (this.sent == null || this.sent.length != parts.length)
+				this.sent = new PartState[parts.length];
+
+			FriendlyByteBuf buf = null;
+			int count = 0;
+			int countIndex = 0;
+			for (int i = 0; i < parts.length && i < 256; i++) {
+				if (!(parts[i] instanceof TFPart<?> part))
+					continue;
+
+				PartState state = this.sent[i];
+				if (state == null)
+					state = this.sent[i] = new PartState();
+
+				int flags = state.update(part);
+				boolean dirty = part.getEntityData().isDirty();
+				if (flags == 0 && !dirty)
+					continue;
+
+				if (buf == null) {
+					buf = this.startSection();
+					countIndex = buf.writerIndex();
+					// room for a count of up to 255, which is all a byte sized part index allows anyway
+					buf.writeShort(0);
+				}
+				this.writePart(buf, part, i, flags, dirty ? part.getEntityData().packDirty() : null);
+				count++;
+			}
+
+			if (buf == null)
+				return null;
+			setVarIntShort(buf, countIndex, count);
+			return buf;
+		}
+
+		/**
+		 * @return every part, as they are right now
+		 */
+		private ByteBuf writeAll() {
+			FriendlyByteBuf buf = this.startSection();
+			PartEntity<?>[] parts = this.entity.getParts();
+			int countIndex = buf.writerIndex();
+			buf.writeShort(0);
+			int count = 0;
+			if (parts != null) {
+				for (int i = 0; i < parts.length && i < 256; i++) {
+					if (parts[i] instanceof TFPart<?> part) {
+						this.writePart(buf, part, i, MOVED | RESIZED, part.getEntityData().getAll());
+						count++;
+					}
+				}
+			}
+			setVarIntShort(buf, countIndex, count);
+			return buf;
+		}
+
+		private FriendlyByteBuf startSection() {
+			FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+			buf.writeVarInt(this.entity.getId());
+			buf.writeDouble(this.entity.getX());
+			buf.writeDouble(this.entity.getY());
+			buf.writeDouble(this.entity.getZ());
+			return buf;
+		}
+
+		private void writePart(FriendlyByteBuf buf, TFPart<?> part, int index, int flags, @Nullable List<SynchedEntityData.DataItem<?>> data) {
+			if (data != null && !data.isEmpty())
+				flags |= DATA;
+
+			double dx = (part.getX() - this.entity.getX()) * POSITION_SCALE;
+			double dy = (part.getY() - this.entity.getY()) * POSITION_SCALE;
+			double dz = (part.getZ() - this.entity.getZ()) * POSITION_SCALE;
+			boolean far = Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz))) >= Short.MAX_VALUE;
+			if ((flags & MOVED) != 0 && far)
+				flags |= FAR;
+
+			buf.writeByte(index);
+			buf.writeByte(flags);
+			if ((flags & MOVED) != 0) {
+				if (far) {
+					buf.writeDouble(part.getX());
+					buf.writeDouble(part.getY());
+					buf.writeDouble(part.getZ());
+				} else {
+					buf.writeShort((int) Math.round(dx));
+					buf.writeShort((int) Math.round(dy));
+					buf.writeShort((int) Math.round(dz));
+				}
+				buf.writeByte(packRotation(part.getYRot()));
+				buf.writeByte(packRotation(part.getXRot()));
+			}
+			if ((flags & RESIZED) != 0) {
+				buf.writeFloat(part.dimensions.width);
+				buf.writeFloat(part.dimensions.height);
+				buf.writeBoolean(part.dimensions.fixed);
+			}
+			if ((flags & DATA) != 0)
+				SynchedEntityData.pack(data, buf);
+		}
+
+		// The count is written as a two byte VarInt so it can be filled in afterwards without moving anything
+		private static void setVarIntShort(ByteBuf buf, int index, int value) {
+			buf.setByte(index, value & 0x7F | 0x80);
+			buf.setByte(index + 1, value >>> 7);
+		}
+	}
+
+	private static int packRotation(float rotation) {
+		return Mth.floor(rotation * 256.0F / 360.0F);
+	}
+
+	private static class PartState {
+		private boolean sent;
+		private long x, y, z;
+		private int yRot, xRot;
+		private float width, height;
+		private boolean fixed;
+
+		/**
+		 * Notes down where the part is now.
+		 *
+		 * @return the {@link #MOVED} and {@link #RESIZED} flags for whatever changed since the last call
+		 */
+		private int update(TFPart<?> part) {
+			int flags = 0;
+			long x = Mth.lfloor(part.getX() * POSITION_SCALE);
+			long y = Mth.lfloor(part.getY() * POSITION_SCALE);
+			long z = Mth.lfloor(part.getZ() * POSITION_SCALE);
+			int yRot = packRotation(part.getYRot()) & 0xFF;
+			int xRot = packRotation(part.getXRot()) & 0xFF;
+			if (!this.sent || x != this.x || y != this.y || z != this.z || yRot != this.yRot || xRot != this.xRot) {
+				this.x = x;
+				this.y = y;
+				this.z = z;
+				this.yRot = yRot;
+				this.xRot = xRot;
+				flags |= MOVED;
+			}
+
+			if (!this.sent || part.dimensions.width != this.width || part.dimensions.height != this.height || part.dimensions.fixed != this.fixed) {
+				this.width = part.dimensions.width;
+				this.height = part.dimensions.height;
+				this.fixed = part.dimensions.fixed;
+				flags |= RESIZED;
+			}
+
+			this.sent = true;
+			return flags;
+		}
+	}
+}
@@ -9,7 +9,7 @@ import java.util.function.Supplier;
 
 public class TFPacketHandler {
 	// Bump this number every time theres a breaking change, to ensure people dont mess things up when joining on the wrong version
-	private static final String PROTOCOL_VERSION = "2";
+	private static final String PROTOCOL_VERSION = "3";
 	public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
 			TwilightForestMod.prefix("channel"),
 			() -> PROTOCOL_VERSION,
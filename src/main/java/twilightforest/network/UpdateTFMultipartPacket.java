@@ -1,5 +1,6 @@
 package twilightforest.network;
 
+import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.syncher.SynchedEntityData;
@@ -9,40 +10,31 @@ import net.minecraftforge.entity.PartEntity;
 import net.minecraftforge.network.NetworkEvent;
 import twilightforest.entity.TFPart;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.function.Supplier;
 
+/**
+ * The part updates of every multipart entity a player tracks that changed this tick, see {@link MultipartSync} for how
+ * each entity's section is put together.
+ */
 public class UpdateTFMultipartPacket {
 
-	private int id;
 	private FriendlyByteBuf buffer;
-	private Entity entity;
+	private List<ByteBuf> entities;
 
 	public UpdateTFMultipartPacket(FriendlyByteBuf buf) {
-		id = buf.readInt();
 		buffer = buf;
 	}
 
-	public UpdateTFMultipartPacket(Entity entity) {
-		this.entity = entity;
+	public UpdateTFMultipartPacket(List<ByteBuf> entities) {
+		this.entities = entities;
 	}
 
 	public void encode(FriendlyByteBuf buf) {
-		buf.writeInt(entity.getId());
-		PartEntity<?>[] parts = entity.getParts();
-		// We assume the client and server part arrays are identical, else everything will crash and burn. Don't even bother handling it.
-		if (parts != null) {
-			for (PartEntity<?> part : parts) {
-				if (part instanceof TFPart) {
-					TFPart<?> tfPart = (TFPart<?>) part;
-					tfPart.writeData(buf);
-					boolean dirty = tfPart.getEntityData().isDirty();
-					buf.writeBoolean(dirty);
-					if (dirty)
-						SynchedEntityData.pack(tfPart.getEntityData().packDirty(), buf);
-				}
-			}
-		}
+		buf.writeVarInt(entities.size());
+		for (ByteBuf entity : entities)
+			buf.writeBytes(entity, entity.readerIndex(), entity.readableBytes());
 	}
 
 	public static class Handler {
@@ -53,26 +45,56 @@ public class UpdateTFMultipartPacket {
 					Level world = Minecraft.getInstance().level;
 					if (world == null)
 						return;
-					Entity ent = world.getEntity(message.id);
-					if (ent != null && ent.isMultipartEntity()) {
-						PartEntity<?>[] parts = ent.getParts();
-						if (parts == null)
-							return;
-						for (PartEntity<?> part : parts) {
-							if (part instanceof TFPart) {
-								TFPart<?> tfPart = (TFPart<?>) part;
-								tfPart.readData(message.buffer);
-								if (message.buffer.readBoolean()) {
-									List<SynchedEntityData.DataItem<?>> data = SynchedEntityData.unpack(message.buffer);
-									if (data != null)
-										tfPart.getEntityData().assignValues(data);
-								}
-							}
+					FriendlyByteBuf buf = message.buffer;
+					for (int i = buf.readVarInt(); i > 0; i--) {
+						Entity ent = world.getEntity(buf.readVarInt());
+						double originX = buf.readDouble();
+						double originY = buf.readDouble();
+						double originZ = buf.readDouble();
+						PartEntity<?>[] parts = ent != null && ent.isMultipartEntity() ? ent.getParts() : null;
+						// We assume the client and server part arrays are identical, else everything will crash and burn. Don't even bother handling it.
+						for (int count = buf.readVarInt(); count > 0; count--) {
+							int index = buf.readUnsignedByte();
+							TFPart<?> part = parts != null && index < parts.length && parts[index] instanceof TFPart<?> p ? p : null;
+							readPart(buf, part, originX, originY, originZ);
 						}
 					}
 				}
 			});
 			return true;
 		}
+
+		// Reads the whole part either way, so an entity the client doesn't know about doesn't throw off the rest
+		private static void readPart(FriendlyByteBuf buf, @Nullable TFPart<?> part, double originX, double originY, double originZ) {
+			int flags = buf.readByte();
+			if ((flags & MultipartSync.MOVED) != 0) {
+				double x, y, z;
+				if ((flags & MultipartSync.FAR) != 0) {
+					x = buf.readDouble();
+					y = buf.readDouble();
+					z = buf.readDouble();
+				} else {
+					x = originX + buf.readShort() / MultipartSync.POSITION_SCALE;
+					y = originY + buf.readShort() / MultipartSync.POSITION_SCALE;
+					z = originZ + buf.readShort() / MultipartSync.POSITION_SCALE;
+				}
+				float yaw = buf.readByte() * 360.0F / 256.0F;
+				float pitch = buf.readByte() * 360.0F / 256.0F;
+				if (part != null)
+					part.setPositionAndRotationDirect(x, y, z, yaw, pitch, 3);
+			}
+			if ((flags & MultipartSync.RESIZED) != 0) {
+				float width = buf.readFloat();
+				float height = buf.readFloat();
+				boolean fixed = buf.readBoolean();
+				if (part != null)
+					part.updateSize(width, height, fixed);
+			}
+			if ((flags & MultipartSync.DATA) != 0) {
+				List<SynchedEntityData.DataItem<?>> data = SynchedEntityData.unpack(buf);
+				if (part != null && data != null)
+					part.getEntityData().assignValues(data);
+			}
+		}
 	}
 }
@@ -17,7 +17,9 @@ import net.minecraft.world.level.levelgen.feature.TreeFeature;
 import net.minecraft.world.level.levelgen.feature.stateproviders.BlockStateProvider;
 import twilightforest.block.TFBlocks;
 
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
@@ -26,6 +28,8 @@ import java.util.function.BiFunction;
  */
 public final class FeaturePlacers {
     public static final BiFunction<LevelSimulatedReader, BlockPos, Boolean> VALID_TREE_POS = TreeFeature::validTreePos;
+    // Block out -> state in -> state out, filled by transferAllStateKeys from whichever worker gets there first
+    private static final Map<Block, Map<BlockState, BlockState>> STATE_TRANSFERS = new ConcurrentHashMap<>();
 
     public static <T extends Mob> void placeEntity(EntityType<T> entityType, BlockPos pos, ServerLevelAccessor levelAccessor) {
         Mob mob = entityType.create(levelAccessor.getLevel());
@@ -252,8 +256,21 @@ public final class FeaturePlacers {
         }
     }
 
+    /**
+     * Memoised, since structure processors swap the same handful of stairs, slabs and walls over and over.
+     * Neither blocks nor states override equals, so these are identity lookups.
+     */
     public static BlockState transferAllStateKeys(BlockState stateIn, Block blockOut) {
-        return transferAllStateKeys(stateIn, blockOut.defaultBlockState());
+        Map<BlockState, BlockState> transfers = STATE_TRANSFERS.get(blockOut);
+        if (transfers == null)
+            transfers = STATE_TRANSFERS.computeIfAbsent(blockOut, block -> new ConcurrentHashMap<>());
+
+        BlockState stateOut = transfers.get(stateIn);
+        if (stateOut == null) {
+            stateOut = transferAllStateKeys(stateIn, blockOut.defaultBlockState());
+            transfers.put(stateIn, stateOut);
+        }
+        return stateOut;
     }
 
     public static BlockState transferAllStateKeys(BlockState stateIn, BlockState stateOut) {
@@ -1,24 +1,23 @@
 package twilightforest.world;
 
-import com.google.common.collect.Maps;
-import it.unimi.dsi.fastutil.objects.Object2LongMap;
-import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.portal.PortalInfo;
+import net.minecraft.world.level.border.WorldBorder;
+import net.minecraft.world.entity.ai.village.poi.PoiManager;
+import net.minecraft.world.entity.ai.village.poi.PoiRecord;
 import net.minecraft.world.level.material.Material;
 import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.core.Direction;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.ChunkPos;
-import net.minecraft.server.level.ColumnPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.TicketType;
 import net.minecraftforge.common.util.ITeleporter;
@@ -29,11 +28,12 @@ import twilightforest.block.TFBlocks;
 import twilightforest.util.WorldUtil;
 import twilightforest.world.components.chunkgenerators.ChunkGeneratorTwilight;
 import twilightforest.world.registration.TFGenerationSettings;
+import twilightforest.world.registration.TFPoiTypes;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Function;
@@ -41,8 +41,7 @@ import java.util.function.Predicate;
 
 public class TFTeleporter implements ITeleporter {
 
-	private static final Map<ResourceLocation, Map<ColumnPos, PortalPosition>> destinationCoordinateCache = new HashMap<>();
-	private static final Object2LongMap<ColumnPos> columnMap = new Object2LongOpenHashMap<>();
+	private static final int DESTINATION_RADIUS = 2;
 
 	private static boolean locked;
 
@@ -54,110 +53,48 @@ public class TFTeleporter implements ITeleporter {
 	@Override
 	public PortalInfo getPortalInfo(Entity entity, ServerLevel dest, Function<ServerLevel, PortalInfo> defaultPortalInfo) {
 		PortalInfo pos;
-		if ((pos = placeInExistingPortal(dest, entity, entity.blockPosition(), entity instanceof Player)) == null) {
+		if ((pos = placeInExistingPortal(dest, entity, entity.blockPosition())) == null) {
 			pos = moveToSafeCoords(dest, entity);
 			makePortal(entity, dest, pos.pos);
-			pos = placeInExistingPortal(dest, entity, new BlockPos(pos.pos), entity instanceof Player);
+			pos = placeInExistingPortal(dest, entity, new BlockPos(pos.pos));
 		}
 		return pos;
 	}
 
 	@Nullable
-	private static PortalInfo placeInExistingPortal(ServerLevel world, Entity entity, BlockPos pos, boolean isPlayer) {
-		int i = 200; // scan radius up to 200, and also un-inline this variable back into below
-		boolean flag = true;
-		BlockPos blockpos = BlockPos.ZERO;
-		ColumnPos columnPos = new ColumnPos(pos);
-
-		if (!isPlayer && columnMap.containsKey(columnPos)) {
+	private static PortalInfo placeInExistingPortal(ServerLevel world, Entity entity, BlockPos pos) {
+		int range = 200;
+		PoiManager poiManager = world.getPoiManager();
+		WorldBorder border = world.getWorldBorder();
+
+		// only validates sections that haven't been indexed yet, after that this is a lookup
+		poiManager.ensureLoadedAndValid(world, pos, range);
+		Optional<BlockPos> nearest = poiManager.getInSquare(type -> type == TFPoiTypes.TWILIGHT_PORTAL.get(), pos, range, PoiManager.Occupancy.ANY)
+				.map(PoiRecord::getPos)
+				.filter(border::isWithinBounds)
+				.min(Comparator.<BlockPos>comparingDouble(portalPos -> portalPos.distSqr(pos)).thenComparingInt(BlockPos::getY));
+
+		if (nearest.isEmpty()) {
 			return null;
-		} else {
-			PortalPosition portalPosition = destinationCoordinateCache.containsKey(world.dimension().location()) ? destinationCoordinateCache.get(world.dimension().location()).get(columnPos) : null;
-			if (portalPosition != null) {
-				blockpos = portalPosition.pos;
-				portalPosition.lastUpdateTime = world.getGameTime();
-				flag = false;
-			} else {
-				//BlockPos blockpos3 = new BlockPos(entity);
-				double d0 = Double.MAX_VALUE;
-
-				for (int i1 = -i; i1 <= i; ++i1) {
-					BlockPos blockpos2;
-
-					for (int j1 = -i; j1 <= i; ++j1) {
-
-						// skip positions outside current world border (MC-114796)
-						if (!world.getWorldBorder().isWithinBounds(pos.offset(i1, 0, j1))) {
-							continue;
-						}
-
-						// skip chunks that aren't generated
-						ChunkPos chunkPos = new ChunkPos(pos.offset(i1, 0, j1));
-						if (!world.getChunkSource().chunkMap.isExistingChunkFull(chunkPos)) {
-							continue;
-						}
-
-						// explicitly fetch chunk so it can be unloaded if needed
-						LevelChunk chunk = world.getChunk(chunkPos.x, chunkPos.z);
-
-						for (BlockPos blockpos1 = pos.offset(i1, getScanHeight(world, pos) - pos.getY(), j1); blockpos1.getY() >= 0; blockpos1 = blockpos2) {
-							blockpos2 = blockpos1.below();
-
-							// don't lookup state if inner condition would fail
-							if (d0 >= 0.0D && blockpos1.distSqr(pos) >= d0) {
-								continue;
-							}
-
-							// use our portal block
-							if (isPortal(chunk.getBlockState(blockpos1))) {
-								for (blockpos2 = blockpos1.below(); isPortal(chunk.getBlockState(blockpos2)); blockpos2 = blockpos2.below()) {
-									blockpos1 = blockpos2;
-								}
-
-								float d1 = (float) blockpos1.distSqr(pos);
-								if (d0 < 0.0D || d1 < d0) {
-									d0 = d1;
-									blockpos = blockpos1;
-									// restrict search radius to new distance
-									i = Mth.ceil(Mth.sqrt(d1));
-								}
-							}
-						}
-
-						// mark unwatched chunks for unload
-						//						if (!this.world.getPlayerChunkMap().contains(chunkPos.x, chunkPos.z)) {
-						//							this.world.getChunkProvider().queueUnload(chunk);
-						//						}
-					}
-				}
-			}
 		}
 
-		if (blockpos.equals(BlockPos.ZERO)) {
-			long factor = world.getGameTime() + 300L;
-			columnMap.put(columnPos, factor);
-			return null;
-		} else {
-			if (flag) {
-				destinationCoordinateCache.putIfAbsent(world.dimension().location(), Maps.newHashMapWithExpectedSize(4096));
-				destinationCoordinateCache.get(world.dimension().location()).put(columnPos, new PortalPosition(blockpos, world.getGameTime()));
-				world.getChunkSource().addRegionTicket(TicketType.PORTAL, new ChunkPos(blockpos), 3, new BlockPos(columnPos.x, blockpos.getY(), columnPos.z));
-			}
+		// go to the bottom of the portal column
+		BlockPos blockpos = nearest.get();
+		while (isPortalAt(world, blockpos.below())) {
+			blockpos = blockpos.below();
+		}
 
-			// replace with our own placement logic
-			BlockPos[] portalBorder = getBoundaryPositions(world, blockpos).toArray(new BlockPos[0]);
-			BlockPos borderPos = portalBorder[0/*random.nextInt(portalBorder.length)*/];
+		world.getChunkSource().addRegionTicket(TicketType.PORTAL, new ChunkPos(blockpos), 3, blockpos);
 
-			double portalX = borderPos.getX() + 0.5;
-			double portalY = borderPos.getY() + 1.0;
-			double portalZ = borderPos.getZ() + 0.5;
+		// replace with our own placement logic
+		BlockPos[] portalBorder = getBoundaryPositions(world, blockpos).toArray(new BlockPos[0]);
+		BlockPos borderPos = portalBorder[0/*random.nextInt(portalBorder.length)*/];
 
-			return makePortalInfo(entity, portalX, portalY, portalZ);
-		}
-	}
+		double portalX = borderPos.getX() + 0.5;
+		double portalY = borderPos.getY() + 1.0;
+		double portalZ = borderPos.getZ() + 0.5;
 
-	private static int getScanHeight(ServerLevel world, BlockPos pos) {
-		return getScanHeight(world, pos.getX(), pos.getZ());
+		return makePortalInfo(entity, portalX, portalY, portalZ);
 	}
 
 	private static int getScanHeight(ServerLevel world, int x, int z) {
@@ -279,29 +216,25 @@ public class TFTeleporter implements ITeleporter {
 		// ensure area is populated first
 		loadSurroundingArea(world, pos);
 
-		BlockPos spot = findPortalCoords(world, pos, blockPos -> isPortalAt(world, blockPos));
+		PortalSites sites = findPortalSites(world, pos);
 		String name = entity.getName().getString();
 
-		if (spot != null) {
-			TwilightForestMod.LOGGER.debug("Found existing portal for {} at {}", name, spot);
-			cachePortalCoords(world, pos, spot);
+		if (sites.spots[PortalSites.EXISTING] != null) {
+			TwilightForestMod.LOGGER.debug("Found existing portal for {} at {}", name, sites.spots[PortalSites.EXISTING]);
 			return;
 		}
 
-		spot = findPortalCoords(world, pos, blockpos -> isIdealForPortal(world, blockpos));
-
-		if (spot != null) {
-			TwilightForestMod.LOGGER.debug("Found ideal portal spot for {} at {}", name, spot);
-			cachePortalCoords(world, pos, makePortalAt(world, spot));
+		if (sites.spots[PortalSites.IDEAL] != null) {
+			TwilightForestMod.LOGGER.debug("Found ideal portal spot for {} at {}", name, sites.spots[PortalSites.IDEAL]);
+			makePortalAt(world, sites.spots[PortalSites.IDEAL]);
 			return;
 		}
 
 		TwilightForestMod.LOGGER.debug("Did not find ideal portal spot, shooting for okay one for {}", name);
-		spot = findPortalCoords(world, pos, blockPos -> isOkayForPortal(world, blockPos));
 
-		if (spot != null) {
-			TwilightForestMod.LOGGER.debug("Found okay portal spot for {} at {}", name, spot);
-			cachePortalCoords(world, pos, makePortalAt(world, spot));
+		if (sites.spots[PortalSites.OKAY] != null) {
+			TwilightForestMod.LOGGER.debug("Found okay portal spot for {} at {}", name, sites.spots[PortalSites.OKAY]);
+			makePortalAt(world, sites.spots[PortalSites.OKAY]);
 			return;
 		}
 
@@ -311,77 +244,108 @@ public class TFTeleporter implements ITeleporter {
 		// adjust the portal height based on what world we're traveling to
 		double yFactor = getYFactor(world);
 		// modified copy of base Teleporter method:
-		cachePortalCoords(world, pos, makePortalAt(world, new BlockPos(entity.getX(), (entity.getY() * yFactor) - 1.0, entity.getZ())));
+		makePortalAt(world, new BlockPos(entity.getX(), (entity.getY() * yFactor) - 1.0, entity.getZ()));
 	}
 
 	private static void loadSurroundingArea(ServerLevel world, Vec3 pos) {
 
 		int x = Mth.floor(pos.x) >> 4;
-		int z = Mth.floor(pos.y) >> 4;
+		int z = Mth.floor(pos.z) >> 4;
 
-		for (int dx = -2; dx <= 2; dx++) {
-			for (int dz = -2; dz <= 2; dz++) {
+		for (int dx = -DESTINATION_RADIUS; dx <= DESTINATION_RADIUS; dx++) {
+			for (int dz = -DESTINATION_RADIUS; dz <= DESTINATION_RADIUS; dz++) {
 				world.getChunk(x + dx, z + dz);
 			}
 		}
 	}
 
-	@Nullable
-	private static BlockPos findPortalCoords(ServerLevel world, Vec3 loc, Predicate<BlockPos> predicate) {
+	/**
+	 * Starts loading the chunks around where an entity is about to arrive, without waiting for them.
+	 *
+	 * @return true once they are all there, so sending the entity won't stall the server on loading them
+	 */
+	public static boolean prepareDestination(ServerLevel world, BlockPos pos) {
+		ChunkPos center = new ChunkPos(pos);
+		world.getChunkSource().addRegionTicket(TicketType.PORTAL, center, DESTINATION_RADIUS, pos);
+
+		for (int dx = -DESTINATION_RADIUS; dx <= DESTINATION_RADIUS; dx++) {
+			for (int dz = -DESTINATION_RADIUS; dz <= DESTINATION_RADIUS; dz++) {
+				if (world.getChunkSource().getChunkNow(center.x + dx, center.z + dz) == null) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the closest existing portal, ideal spot and okay spot all in one pass. Columns are walked a chunk section
+	 * at a time, sections that are nothing but air or have no air at all are skipped without looking at their blocks.
+	 */
+	private static PortalSites findPortalSites(ServerLevel world, Vec3 loc) {
 		// adjust the height based on what world we're traveling to
 		double yFactor = getYFactor(world);
 		// modified copy of base Teleporter method:
 		int entityX = Mth.floor(loc.x);
 		int entityZ = Mth.floor(loc.z);
+		int minY = world.getMinBuildHeight();
 
-		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-
-		double spotWeight = -1D;
-		BlockPos spot = null;
+		PortalSites sites = new PortalSites(loc.y * yFactor,
+				blockPos -> isPortalAt(world, blockPos),
+				blockPos -> isIdealForPortal(world, blockPos),
+				blockPos -> isOkayForPortal(world, blockPos));
 
 		int range = 16;
 		for (int rx = entityX - range; rx <= entityX + range; rx++) {
 			double xWeight = (rx + 0.5D) - loc.x;
 			for (int rz = entityZ - range; rz <= entityZ + range; rz++) {
 				double zWeight = (rz + 0.5D) - loc.z;
-
-				for (int ry = getScanHeight(world, rx, rz); ry >= world.getMinBuildHeight(); ry--) {
-
-					if (!world.isEmptyBlock(pos.set(rx, ry, rz))) {
+				double horizontalWeight = xWeight * xWeight + zWeight * zWeight;
+				LevelChunk chunk = world.getChunk(rx >> 4, rz >> 4);
+				LevelChunkSection[] sections = chunk.getSections();
+
+				// every spot is the top of the ground right below a run of air, the weight is taken from the bottom of the air
+				boolean aboveEmpty = false;
+				int ry = getScanHeight(world, rx, rz);
+				while (ry >= minY) {
+					LevelChunkSection section = sections[chunk.getSectionIndex(ry)];
+					int sectionBottom = SectionPos.sectionToBlockCoord(SectionPos.blockToSectionCoord(ry));
+
+					if (section.hasOnlyAir()) {
+						aboveEmpty = true;
+						ry = sectionBottom - 1;
 						continue;
 					}
 
-					while (ry > world.getMinBuildHeight() && world.isEmptyBlock(pos.set(rx, ry - 1, rz))) {
-						ry--;
+					if (!section.getStates().maybeHas(BlockState::isAir)) {
+						if (aboveEmpty)
+							sites.consider(rx, ry + 1, ry, rz, horizontalWeight);
+						aboveEmpty = false;
+						ry = sectionBottom - 1;
+						continue;
 					}
 
-					double yWeight = (ry + 0.5D) - loc.y * yFactor;
-					double rPosWeight = xWeight * xWeight + yWeight * yWeight + zWeight * zWeight;
-
-					if (spotWeight < 0.0D || rPosWeight < spotWeight) {
-						// check from the "in ground" pos
-						if (predicate.test(pos)) {
-							spotWeight = rPosWeight;
-							spot = pos.immutable();
-						}
+					for (; ry >= sectionBottom; ry--) {
+						boolean empty = section.getBlockState(rx & 15, ry & 15, rz & 15).isAir();
+						if (aboveEmpty && !empty)
+							sites.consider(rx, ry + 1, ry, rz, horizontalWeight);
+						aboveEmpty = empty;
 					}
 				}
+
+				// air all the way down, the spot ends up on the bottom of the world
+				if (aboveEmpty)
+					sites.consider(rx, minY, minY, rz, horizontalWeight);
 			}
 		}
 
-		return spot;
+		return sites;
 	}
 
 	private static double getYFactor(ServerLevel world) {
 		return world.dimension().location().equals(Level.OVERWORLD.location()) ? 2.0 : 0.5;
 	}
 
-	private static void cachePortalCoords(ServerLevel world, Vec3 loc, BlockPos pos) {
-		int x = Mth.floor(loc.x), z = Mth.floor(loc.z);
-		destinationCoordinateCache.putIfAbsent(world.dimension().location(), Maps.newHashMapWithExpectedSize(4096));
-		destinationCoordinateCache.get(world.dimension().location()).put(new ColumnPos(x, z), new PortalPosition(pos, world.getGameTime()));
-	}
-
 	private static boolean isIdealForPortal(ServerLevel world, BlockPos pos) {
 		for (int potentialZ = 0; potentialZ < 4; potentialZ++) {
 			for (int potentialX = 0; potentialX < 4; potentialX++) {
@@ -496,13 +460,41 @@ public class TFTeleporter implements ITeleporter {
 		return repositionEntity.apply(false);
 	}
 
-	static class PortalPosition {
-		public final BlockPos pos;
-		long lastUpdateTime;
+	/**
+	 * The best spot found so far for each kind of portal site. A spot is only checked against a kind if it's closer
+	 * than that kind's current best, so the 4x4x4 probes only run for spots that could win. Ideal and okay spots stop
+	 * being checked once an existing portal turns up.
+	 */
+	private static class PortalSites {
+		static final int EXISTING = 0;
+		static final int IDEAL = 1;
+		static final int OKAY = 2;
+
+		private final double targetY;
+		private final Predicate<BlockPos>[] predicates;
+		private final BlockPos[] spots = new BlockPos[3];
+		private final double[] weights = {-1D, -1D, -1D};
+		private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+		@SafeVarargs
+		private PortalSites(double targetY, Predicate<BlockPos>... predicates) {
+			this.targetY = targetY;
+			this.predicates = predicates;
+		}
 
-		PortalPosition(BlockPos pos, long time) {
-			this.pos = pos;
-			this.lastUpdateTime = time;
+		private void consider(int x, int airY, int groundY, int z, double horizontalWeight) {
+			double yWeight = (airY + 0.5D) - this.targetY;
+			double weight = horizontalWeight + yWeight * yWeight;
+			// check from the "in ground" pos
+			this.pos.set(x, groundY, z);
+			// once there's a portal to go to, new spots won't be used
+			int tiers = this.spots[EXISTING] != null ? EXISTING + 1 : this.spots.length;
+			for (int i = 0; i < tiers; i++) {
+				if ((this.weights[i] < 0.0D || weight < this.weights[i]) && this.predicates[i].test(this.pos)) {
+					this.weights[i] = weight;
+					this.spots[i] = this.pos.immutable();
+				}
+			}
 		}
 	}
-}
+}
\ No newline at end of file
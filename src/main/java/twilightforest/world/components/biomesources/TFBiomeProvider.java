@@ -7,6 +7,7 @@ import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.resources.RegistryOps;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeSource;
 import net.minecraft.world.level.biome.Climate;
@@ -16,9 +17,9 @@ import twilightforest.world.components.layer.vanillalegacy.SmoothLayer;
 import twilightforest.world.components.layer.vanillalegacy.ZoomLayer;
 import twilightforest.world.components.layer.vanillalegacy.area.Area;
 import twilightforest.world.components.layer.vanillalegacy.area.AreaFactory;
-import twilightforest.world.components.layer.vanillalegacy.area.LazyArea;
+import twilightforest.world.components.layer.vanillalegacy.area.ArrayCachedArea;
+import twilightforest.world.components.layer.vanillalegacy.context.ArrayCachedAreaContext;
 import twilightforest.world.components.layer.vanillalegacy.context.BigContext;
-import twilightforest.world.components.layer.vanillalegacy.context.LazyAreaContext;
 import twilightforest.world.registration.TFDimensions;
 import twilightforest.world.registration.biomes.BiomeKeys;
 
@@ -56,8 +57,12 @@ public class TFBiomeProvider extends BiomeSource {
 			BiomeKeys.SPOOKY_FOREST
 	);
 
+	// Batches are evaluated in tiles of this size, which keeps the intermediate layer buffers small
+	private static final int TILE_SIZE = 128;
+
 	private final Registry<Biome> registry;
-	private final Layer genBiomes;
+	// The layer contexts carry mutable random state, so every chunk worker gets its own stack instead of queueing on a shared lock
+	private final ThreadLocal<LayerSampler> genBiomes;
 	private final long seed;
 
 	public TFBiomeProvider(long seed, Registry<Biome> registryIn) {
@@ -78,7 +83,7 @@ public class TFBiomeProvider extends BiomeSource {
 		//getBiomesToSpawnIn().add(TFBiomes.mushrooms.get());
 
 		registry = registryIn;
-		genBiomes = makeLayers(seed, registryIn);
+		genBiomes = ThreadLocal.withInitial(() -> new LayerSampler(makeLayers(seed, registryIn)));
 	}
 
 	public static int getBiomeId(ResourceKey<Biome> biome, Registry<Biome> registry) {
@@ -111,7 +116,7 @@ public class TFBiomeProvider extends BiomeSource {
 	}
 	
 	public static Layer makeLayers(long seed, Registry<Biome> registry) {
-		AreaFactory<LazyArea> areaFactory = makeLayers((context) -> new LazyAreaContext(25, seed, context), registry, seed);
+		AreaFactory<ArrayCachedArea> areaFactory = makeLayers((context) -> new ArrayCachedAreaContext(25, seed, context), registry, seed);
 		// Debug code to render an image of the biome layout within the ide
 		/*final java.util.Map<Integer, Integer> remapColors = new java.util.HashMap<>();
 		remapColors.put(getBiomeId(twilightforest.world.registration.biomes.BiomeKeys.LAKE, registry), 0x0000FF);
@@ -140,7 +145,7 @@ public class TFBiomeProvider extends BiomeSource {
 		final int oz = 0;
 		java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(size, size, java.awt.image.BufferedImage.TYPE_INT_RGB);
 		java.awt.Graphics2D display = image.createGraphics();
-		LazyArea area = areaFactory.make();
+		ArrayCachedArea area = areaFactory.make();
 		java.util.function.BiPredicate<Integer, Integer> line = (i, mod) -> {
 			for (int j = -5; j < 5; j++) {
 				if ((i + j) % mod == 0)
@@ -182,6 +187,59 @@ public class TFBiomeProvider extends BiomeSource {
 
 	@Override
 	public Holder<Biome> getNoiseBiome(int x, int y, int z, Climate.Sampler sampler) {
-		return genBiomes.get(registry, x, z);
+		return Holder.direct(this.getBiomeById(genBiomes.get().getBiomeId(x, z)));
+	}
+
+	/**
+	 * Fills {@code out} with the biomes of the {@code width} x {@code depth} block of quart positions starting at
+	 * {@code x, z}, row by row along x. The layer stack evaluates the block tile by tile instead of pixel by pixel.
+	 */
+	public void getNoiseBiomes(int x, int z, int width, int depth, Biome[] out) {
+		Area area = genBiomes.get().layer.area;
+		int[] ids = new int[Math.min(width, TILE_SIZE) * Math.min(depth, TILE_SIZE)];
+
+		for (int tileZ = 0; tileZ < depth; tileZ += TILE_SIZE) {
+			for (int tileX = 0; tileX < width; tileX += TILE_SIZE) {
+				int tileWidth = Math.min(TILE_SIZE, width - tileX);
+				int tileDepth = Math.min(TILE_SIZE, depth - tileZ);
+				area.fill(x + tileX, z + tileZ, tileWidth, tileDepth, ids);
+
+				for (int dz = 0; dz < tileDepth; dz++) {
+					for (int dx = 0; dx < tileWidth; dx++) {
+						out[tileX + dx + (tileZ + dz) * width] = this.getBiomeById(ids[dx + dz * tileWidth]);
+					}
+				}
+			}
+		}
+	}
+
+	private Biome getBiomeById(int id) {
+		Biome biome = registry.byId(id);
+		if (biome == null)
+			throw new IllegalStateException("Unknown biome id emitted by layers: " + id);
+		return biome;
+	}
+
+	/**
+	 * A thread's own layer stack. Chunk generation asks for each of a chunk's 4x4 quart columns once per section, so
+	 * the whole column block is evaluated in one batch and reused until a position from another chunk comes in.
+	 */
+	private static class LayerSampler {
+		private final Layer layer;
+		private final int[] chunkBiomes = new int[16];
+		private long chunkPos = ChunkPos.INVALID_CHUNK_POS;
+
+		private LayerSampler(Layer layer) {
+			this.layer = layer;
+		}
+
+		private int getBiomeId(int x, int z) {
+			long pos = ChunkPos.asLong(x >> 2, z >> 2);
+			if (pos != this.chunkPos) {
+				this.layer.area.fill(x & ~3, z & ~3, 4, 4, this.chunkBiomes);
+				this.chunkPos = pos;
+			}
+			return this.chunkBiomes[(x & 3) | (z & 3) << 2];
+		}
 	}
 }
@@ -10,9 +10,7 @@ import net.minecraft.server.level.WorldGenRegion;
 import net.minecraft.util.Mth;
 import net.minecraft.util.random.WeightedRandomList;
 import net.minecraft.world.entity.MobCategory;
-import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.StructureFeatureManager;
-import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.Climate;
 import net.minecraft.world.level.biome.MobSpawnSettings;
@@ -26,14 +24,17 @@ import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
 import net.minecraft.world.level.levelgen.structure.StructureSet;
 import twilightforest.block.TFBlocks;
 import twilightforest.util.IntPair;
-import twilightforest.world.components.structures.start.TFStructureStart;
+import twilightforest.world.components.biomesources.TFBiomeProvider;
+import twilightforest.world.components.structures.start.TFStructureSpawns;
 import twilightforest.world.registration.TFDimensions;
 import twilightforest.world.registration.TFFeature;
+import twilightforest.world.registration.TFFeatureIndex;
+import twilightforest.world.registration.TFStructureIndex;
 import twilightforest.world.registration.biomes.BiomeKeys;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 // TODO override getBaseHeight and getBaseColumn for our advanced structure terraforming
 public class ChunkGeneratorTwilight extends ChunkGeneratorWrapper {
@@ -53,7 +54,11 @@ public class ChunkGeneratorTwilight extends ChunkGeneratorWrapper {
 	private final BlockState defaultBlock;
 	private final Optional<Climate.Sampler> surfaceNoiseGetter;
 
-	public final ConcurrentHashMap<ChunkPos, TFFeature> featureCache = new ConcurrentHashMap<>();
+	// Assigned when the level loads, see TFDimensions
+	@Nullable
+	private volatile TFFeatureIndex featureIndex;
+	private final TFStructureIndex structureIndex = new TFStructureIndex();
+	private final TFStructureSpawns structureSpawns = new TFStructureSpawns();
 
 	public ChunkGeneratorTwilight(ChunkGenerator delegate, Registry<StructureSet> structures, boolean genDarkForestCanopy, boolean monsterSpawnsBelowSeaLevel, Optional<Integer> darkForestCanopyHeight, boolean owSeed) {
 		//super(delegate.getBiomeSource(), delegate.getBiomeSource(), delegate.getSettings(), delegate instanceof NoiseBasedChunkGenerator noiseGen ? noiseGen.seed : delegate.strongholdSeed);
@@ -356,12 +361,25 @@ public class ChunkGeneratorTwilight extends ChunkGeneratorWrapper {
 		int[] thicks = new int[5 * 5];
 		boolean biomeFound = false;
 
+		// every quart from one outside the chunk to one past the 5x5 sample grid
+		int quartX = (blockpos.getX() >> 2) - 1;
+		int quartZ = (blockpos.getZ() >> 2) - 1;
+		Biome[] biomes = new Biome[7 * 7];
+		if (biomeSource instanceof TFBiomeProvider provider) {
+			provider.getNoiseBiomes(quartX, quartZ, 7, 7, biomes);
+		} else {
+			for (int qz = 0; qz < 7; qz++) {
+				for (int qx = 0; qx < 7; qx++) {
+					biomes[qx + qz * 7] = biomeSource.getNoiseBiome(quartX + qx, 0, quartZ + qz, null).value();
+				}
+			}
+		}
+
 		for (int dZ = 0; dZ < 5; dZ++) {
 			for (int dX = 0; dX < 5; dX++) {
 				for (int bx = -1; bx <= 1; bx++) {
 					for (int bz = -1; bz <= 1; bz++) {
-						BlockPos p = blockpos.offset((dX + bx) << 2, 0, (dZ + bz) << 2);
-						Biome biome = biomeSource.getNoiseBiome(p.getX() >> 2, 0, p.getZ() >> 2, null).value();
+						Biome biome = biomes[(dX + bx + 1) + (dZ + bz + 1) * 7];
 						if (BiomeKeys.DARK_FOREST.location().equals(biome.getRegistryName()) || BiomeKeys.DARK_FOREST_CENTER.location().equals(biome.getRegistryName())) {
 							thicks[dX + dZ * 5]++;
 							biomeFound = true;
@@ -452,9 +470,9 @@ public class ChunkGeneratorTwilight extends ChunkGeneratorWrapper {
 	public WeightedRandomList<MobSpawnSettings.SpawnerData> getMobsAt(Holder<Biome> biome, StructureFeatureManager structureManager, MobCategory mobCategory, BlockPos pos) {
 		if (!this.monsterSpawnsBelowSeaLevel) return super.getMobsAt(biome, structureManager, mobCategory, pos);
 
-		List<MobSpawnSettings.SpawnerData> potentialStructureSpawns = TFStructureStart.gatherPotentialSpawns(structureManager, mobCategory, pos);
+		WeightedRandomList<MobSpawnSettings.SpawnerData> potentialStructureSpawns = this.structureSpawns.getSpawnsAt(structureManager, mobCategory, pos);
 		if (potentialStructureSpawns != null)
-			return WeightedRandomList.create(potentialStructureSpawns);
+			return potentialStructureSpawns;
 		//FIXME forge has StructureSpawnManager commented out, find out if theyre redoing this class or removing it entirely
 //		WeightedRandomList<MobSpawnSettings.SpawnerData> spawns = StructureSpawnManager.getStructureSpawns(structureManager, mobCategory, pos);
 //		if (spawns != null)
@@ -462,7 +480,20 @@ public class ChunkGeneratorTwilight extends ChunkGeneratorWrapper {
 		return mobCategory == MobCategory.MONSTER && pos.getY() >= this.getSeaLevel() ? WeightedRandomList.create() : super.getMobsAt(biome, structureManager, mobCategory, pos);
 	}
 
-	public TFFeature getFeatureCached(final ChunkPos chunk, final WorldGenLevel world) {
-		return this.featureCache.computeIfAbsent(chunk, chunkPos -> TFFeature.generateFeature(chunkPos.x, chunkPos.z, world));
+	@Nullable
+	public TFFeatureIndex getFeatureIndex() {
+		return this.featureIndex;
+	}
+
+	public void setFeatureIndex(TFFeatureIndex featureIndex) {
+		this.featureIndex = featureIndex;
+	}
+
+	public TFStructureIndex getStructureIndex() {
+		return this.structureIndex;
+	}
+
+	public TFStructureSpawns getStructureSpawns() {
+		return this.structureSpawns;
 	}
 }
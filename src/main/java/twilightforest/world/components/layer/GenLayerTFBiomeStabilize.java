@@ -25,6 +25,17 @@ public enum GenLayerTFBiomeStabilize implements AreaTransformer1 {
 		return z & 3;
 	}
 
+	// getParentX is only used for the offset trick below, a pixel reads at most one cell off towards its center
+	@Override
+	public int getParentMin(int pos) {
+		return pos - 1;
+	}
+
+	@Override
+	public int getParentMax(int pos) {
+		return pos + 1;
+	}
+
 	/**
 	 * When we are near the center of each biome, make nearby areas that biome too
 	 */
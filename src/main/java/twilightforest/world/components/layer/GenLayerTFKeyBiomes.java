@@ -20,7 +20,8 @@ public enum GenLayerTFKeyBiomes implements AreaTransformer1 {
 
 	private Registry<Biome> registry;
 	private long seed;
-	private static final Random RANDOM = new Random();
+	// Layer stacks are evaluated on several chunk workers at once, so each thread reseeds its own Random
+	private static final ThreadLocal<Random> RANDOM = ThreadLocal.withInitial(Random::new);
 
 	GenLayerTFKeyBiomes() { }
 
@@ -40,13 +41,24 @@ public enum GenLayerTFKeyBiomes implements AreaTransformer1 {
 		return z | 3;
 	}
 
+	@Override
+	public int getParentMin(int pos) {
+		return pos;
+	}
+
+	@Override
+	public int getParentMax(int pos) {
+		return pos;
+	}
+
 	@Override
 	public int applyPixel(BigContext<?> random, Area iArea, int x, int z) {
-		RANDOM.setSeed(seed + (x & -4) * 25117L + (z & -4) * 151121L);
-		int ox = RANDOM.nextInt(2) + 1;
-		int oz = RANDOM.nextInt(2) + 1;
-		RANDOM.setSeed(seed + (x / 8) * 25117L + (z / 8) * 151121L);
-		int offset = RANDOM.nextInt(3);
+		Random rand = RANDOM.get();
+		rand.setSeed(seed + (x & -4) * 25117L + (z & -4) * 151121L);
+		int ox = rand.nextInt(2) + 1;
+		int oz = rand.nextInt(2) + 1;
+		rand.setSeed(seed + (x / 8) * 25117L + (z / 8) * 151121L);
+		int offset = rand.nextInt(3);
 		if ((x & 3) == ox && (z & 3) == oz) {
 			// determine which of the 4
 			if ((x & 4) == 0) {
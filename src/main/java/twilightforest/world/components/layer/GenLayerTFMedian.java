@@ -57,4 +57,9 @@ public enum GenLayerTFMedian implements AreaTransformer1 {
 	public int getParentY(int z) {
 		return z;
 	}
+
+	@Override
+	public int getParentMax(int pos) {
+		return pos + 2;
+	}
 }
@@ -5,13 +5,13 @@ import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.Biomes;
+import twilightforest.world.components.layer.vanillalegacy.area.Area;
 import twilightforest.world.components.layer.vanillalegacy.area.AreaFactory;
-import twilightforest.world.components.layer.vanillalegacy.area.LazyArea;
 
 public class Layer {
-	public final LazyArea area;
+	public final Area area;
 
-	public Layer(AreaFactory<LazyArea> p_76714_) {
+	public Layer(AreaFactory<? extends Area> p_76714_) {
 		this.area = p_76714_.make();
 	}
 
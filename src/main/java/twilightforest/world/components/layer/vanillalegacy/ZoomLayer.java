@@ -23,6 +23,11 @@ public enum ZoomLayer implements AreaTransformer1 {
 		return p_76971_ >> 1;
 	}
 
+	@Override
+	public int getParentMax(int pos) {
+		return (pos + 1) >> 1;
+	}
+
 	public int applyPixel(BigContext<?> p_76966_, Area p_76967_, int p_76968_, int p_76969_) {
 		int i = p_76967_.get(this.getParentX(p_76968_), this.getParentY(p_76969_));
 		p_76966_.initRandom((long)(p_76968_ >> 1 << 1), (long)(p_76969_ >> 1 << 1));
@@ -2,4 +2,16 @@ package twilightforest.world.components.layer.vanillalegacy.area;
 
 public interface Area {
 	int get(int p_76486_, int p_76487_);
+
+	/**
+	 * Fills {@code out} with the {@code width} x {@code depth} block starting at {@code x, z}, row by row along x.
+	 * Areas that can evaluate whole regions from their parent's buffer override this, the rest sample pixel by pixel.
+	 */
+	default void fill(int x, int z, int width, int depth, int[] out) {
+		for (int dz = 0; dz < depth; dz++) {
+			for (int dx = 0; dx < width; dx++) {
+				out[dx + dz * width] = this.get(x + dx, z + dz);
+			}
+		}
+	}
 }
@@ -0,0 +1,75 @@
+package twilightforest.world.components.layer.vanillalegacy.area;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import twilightforest.world.components.layer.vanillalegacy.traits.PixelTransformer;
+import twilightforest.world.components.layer.vanillalegacy.traits.RegionTransformer;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Unsynchronized alternative to {@link LazyArea}. Values are memoised in a fixed-size, direct-mapped pair of arrays
+ * owned by this area alone, so a lookup never takes a lock and a miss simply overwrites whatever occupied the slot.
+ * <p>
+ * Not thread-safe on its own: a whole layer stack built from one {@link twilightforest.world.components.layer.vanillalegacy.context.ArrayCachedAreaContext}
+ * must stay confined to a single thread.
+ * <p>
+ * When given a {@link RegionTransformer}, {@link #fill} evaluates whole blocks straight from the parent's buffer and
+ * bypasses the per-pixel cache entirely.
+ */
+public class ArrayCachedArea implements Area {
+	private static final int EMPTY = Integer.MIN_VALUE;
+
+	private final PixelTransformer transformer;
+	@Nullable
+	private final RegionTransformer regionTransformer;
+	private final long[] keys;
+	private final int[] values;
+	private final int mask;
+	private final int maxCache;
+
+	public ArrayCachedArea(int maxCache, PixelTransformer transformer) {
+		this(maxCache, transformer, null);
+	}
+
+	public ArrayCachedArea(int maxCache, PixelTransformer transformer, @Nullable RegionTransformer regionTransformer) {
+		int size = Mth.smallestEncompassingPowerOfTwo(Math.max(maxCache, 16));
+		this.transformer = transformer;
+		this.regionTransformer = regionTransformer;
+		this.keys = new long[size];
+		this.values = new int[size];
+		this.mask = size - 1;
+		this.maxCache = maxCache;
+		Arrays.fill(this.values, EMPTY);
+	}
+
+	@Override
+	public int get(int x, int z) {
+		long key = ChunkPos.asLong(x, z);
+		int slot = (int) HashCommon.mix(key) & this.mask;
+		int value = this.values[slot];
+		if (value != EMPTY && this.keys[slot] == key) {
+			return value;
+		}
+
+		value = this.transformer.apply(x, z);
+		this.keys[slot] = key;
+		this.values[slot] = value;
+		return value;
+	}
+
+	@Override
+	public void fill(int x, int z, int width, int depth, int[] out) {
+		if (this.regionTransformer != null) {
+			this.regionTransformer.apply(x, z, width, depth, out);
+		} else {
+			Area.super.fill(x, z, width, depth, out);
+		}
+	}
+
+	public int getMaxCache() {
+		return this.maxCache;
+	}
+}
@@ -0,0 +1,39 @@
+package twilightforest.world.components.layer.vanillalegacy.area;
+
+/**
+ * A block of values computed up front from a parent area, so a transformer evaluating a region can read its inputs from
+ * an array instead of going through the parent's cache. Reads outside the buffered block fall through to the parent.
+ */
+public class BufferedArea implements Area {
+	private final Area parent;
+	private final int[] values;
+	private final int x;
+	private final int z;
+	private final int width;
+	private final int depth;
+
+	private BufferedArea(Area parent, int x, int z, int width, int depth) {
+		this.parent = parent;
+		this.values = new int[width * depth];
+		this.x = x;
+		this.z = z;
+		this.width = width;
+		this.depth = depth;
+	}
+
+	public static BufferedArea of(Area parent, int x, int z, int width, int depth) {
+		BufferedArea area = new BufferedArea(parent, x, z, width, depth);
+		parent.fill(x, z, width, depth, area.values);
+		return area;
+	}
+
+	@Override
+	public int get(int x, int z) {
+		int dx = x - this.x;
+		int dz = z - this.z;
+		if (dx >= 0 && dz >= 0 && dx < this.width && dz < this.depth) {
+			return this.values[dx + dz * this.width];
+		}
+		return this.parent.get(x, z);
+	}
+}
@@ -0,0 +1,89 @@
+package twilightforest.world.components.layer.vanillalegacy.context;
+
+import net.minecraft.util.LinearCongruentialGenerator;
+import net.minecraft.world.level.levelgen.LegacyRandomSource;
+import net.minecraft.world.level.levelgen.synth.ImprovedNoise;
+import twilightforest.world.components.layer.vanillalegacy.area.ArrayCachedArea;
+import twilightforest.world.components.layer.vanillalegacy.traits.PixelTransformer;
+import twilightforest.world.components.layer.vanillalegacy.traits.RegionTransformer;
+
+/**
+ * Lock-free counterpart of {@link LazyAreaContext}. Produces the exact same random sequence, but every area gets a
+ * private {@link ArrayCachedArea} instead of sharing one synchronized map with the rest of the layer stack.
+ * <p>
+ * The random state in {@link #initRandom} is mutable, so a layer stack made from these contexts is meant to be built
+ * once per thread (see {@link twilightforest.world.components.biomesources.TFBiomeProvider}).
+ */
+public class ArrayCachedAreaContext implements BigContext<ArrayCachedArea> {
+	private final int maxCache;
+	private final ImprovedNoise biomeNoise;
+	private final long seed;
+	private long rval;
+
+	public ArrayCachedAreaContext(int maxCache, long worldSeed, long layerSeed) {
+		this.seed = mixSeed(worldSeed, layerSeed);
+		this.biomeNoise = new ImprovedNoise(new LegacyRandomSource(worldSeed));
+		this.maxCache = maxCache;
+	}
+
+	@Override
+	public ArrayCachedArea createResult(PixelTransformer transformer) {
+		return new ArrayCachedArea(this.maxCache, transformer);
+	}
+
+	@Override
+	public ArrayCachedArea createResult(PixelTransformer transformer, ArrayCachedArea parent) {
+		return new ArrayCachedArea(Math.min(1024, parent.getMaxCache() * 4), transformer);
+	}
+
+	@Override
+	public ArrayCachedArea createResult(PixelTransformer transformer, ArrayCachedArea parent1, ArrayCachedArea parent2) {
+		return new ArrayCachedArea(Math.min(1024, Math.max(parent1.getMaxCache(), parent2.getMaxCache()) * 4), transformer);
+	}
+
+	@Override
+	public ArrayCachedArea createBatchedResult(PixelTransformer transformer, RegionTransformer regionTransformer) {
+		return new ArrayCachedArea(this.maxCache, transformer, regionTransformer);
+	}
+
+	@Override
+	public ArrayCachedArea createBatchedResult(PixelTransformer transformer, RegionTransformer regionTransformer, ArrayCachedArea parent) {
+		return new ArrayCachedArea(Math.min(1024, parent.getMaxCache() * 4), transformer, regionTransformer);
+	}
+
+	@Override
+	public ArrayCachedArea createBatchedResult(PixelTransformer transformer, RegionTransformer regionTransformer, ArrayCachedArea parent1, ArrayCachedArea parent2) {
+		return new ArrayCachedArea(Math.min(1024, Math.max(parent1.getMaxCache(), parent2.getMaxCache()) * 4), transformer, regionTransformer);
+	}
+
+	@Override
+	public void initRandom(long x, long z) {
+		long i = this.seed;
+		i = LinearCongruentialGenerator.next(i, x);
+		i = LinearCongruentialGenerator.next(i, z);
+		i = LinearCongruentialGenerator.next(i, x);
+		i = LinearCongruentialGenerator.next(i, z);
+		this.rval = i;
+	}
+
+	@Override
+	public int nextRandom(int bound) {
+		int i = Math.floorMod(this.rval >> 24, bound);
+		this.rval = LinearCongruentialGenerator.next(this.rval, this.seed);
+		return i;
+	}
+
+	@Override
+	public ImprovedNoise getBiomeNoise() {
+		return this.biomeNoise;
+	}
+
+	private static long mixSeed(long worldSeed, long layerSeed) {
+		long i = LinearCongruentialGenerator.next(layerSeed, layerSeed);
+		i = LinearCongruentialGenerator.next(i, layerSeed);
+		i = LinearCongruentialGenerator.next(i, layerSeed);
+		long j = LinearCongruentialGenerator.next(worldSeed, i);
+		j = LinearCongruentialGenerator.next(j, i);
+		return LinearCongruentialGenerator.next(j, i);
+	}
+}
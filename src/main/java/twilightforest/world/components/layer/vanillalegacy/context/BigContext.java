@@ -2,6 +2,7 @@ package twilightforest.world.components.layer.vanillalegacy.context;
 
 import twilightforest.world.components.layer.vanillalegacy.area.Area;
 import twilightforest.world.components.layer.vanillalegacy.traits.PixelTransformer;
+import twilightforest.world.components.layer.vanillalegacy.traits.RegionTransformer;
 
 public interface BigContext <R extends Area> extends Context {
 	void initRandom(long p_76508_, long p_76509_);
@@ -16,6 +17,19 @@ public interface BigContext <R extends Area> extends Context {
 		return this.createResult(p_76513_);
 	}
 
+	// Region-aware variants, contexts whose areas can't batch just fall back to the per-pixel result
+	default R createBatchedResult(PixelTransformer transformer, RegionTransformer regionTransformer) {
+		return this.createResult(transformer);
+	}
+
+	default R createBatchedResult(PixelTransformer transformer, RegionTransformer regionTransformer, R parent) {
+		return this.createResult(transformer, parent);
+	}
+
+	default R createBatchedResult(PixelTransformer transformer, RegionTransformer regionTransformer, R parent1, R parent2) {
+		return this.createResult(transformer, parent1, parent2);
+	}
+
 	default int random(int p_76501_, int p_76502_) {
 		return this.nextRandom(2) == 0 ? p_76501_ : p_76502_;
 	}
@@ -7,11 +7,20 @@ import twilightforest.world.components.layer.vanillalegacy.context.Context;
 
 public interface AreaTransformer0 {
 	default <R extends Area> AreaFactory<R> run(BigContext<R> p_76985_) {
-		return () -> p_76985_.createResult((p_164642_, p_164643_) -> {
+		return () -> p_76985_.createBatchedResult((p_164642_, p_164643_) -> {
 			p_76985_.initRandom(p_164642_, p_164643_);
 			return this.applyPixel(p_76985_, p_164642_, p_164643_);
-		});
+		}, (x, z, width, depth, out) -> this.applyRegion(p_76985_, x, z, width, depth, out));
 	}
 
 	int applyPixel(Context p_76990_, int p_76991_, int p_76992_);
+
+	default void applyRegion(BigContext<?> context, int x, int z, int width, int depth, int[] out) {
+		for (int dz = 0; dz < depth; dz++) {
+			for (int dx = 0; dx < width; dx++) {
+				context.initRandom(x + dx, z + dz);
+				out[dx + dz * width] = this.applyPixel(context, x + dx, z + dz);
+			}
+		}
+	}
 }
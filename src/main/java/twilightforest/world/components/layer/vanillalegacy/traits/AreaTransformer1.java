@@ -2,18 +2,36 @@ package twilightforest.world.components.layer.vanillalegacy.traits;
 
 import twilightforest.world.components.layer.vanillalegacy.area.Area;
 import twilightforest.world.components.layer.vanillalegacy.area.AreaFactory;
+import twilightforest.world.components.layer.vanillalegacy.area.BufferedArea;
 import twilightforest.world.components.layer.vanillalegacy.context.BigContext;
 
 public interface AreaTransformer1  extends DimensionTransformer {
 	default <R extends Area> AreaFactory<R> run(BigContext<R> p_77003_, AreaFactory<R> p_77004_) {
 		return () -> {
 			R r = p_77004_.make();
-			return p_77003_.createResult((p_164647_, p_164648_) -> {
+			return p_77003_.createBatchedResult((p_164647_, p_164648_) -> {
 				p_77003_.initRandom(p_164647_, p_164648_);
 				return this.applyPixel(p_77003_, r, p_164647_, p_164648_);
-			}, r);
+			}, (x, z, width, depth, out) -> this.applyRegion(p_77003_, r, x, z, width, depth, out), r);
 		};
 	}
 
 	int applyPixel(BigContext<?> p_76998_, Area p_76999_, int p_77000_, int p_77001_);
-}
\ No newline at end of file
+
+	/**
+	 * Evaluates a whole block at once. The parent's footprint is computed in one pass and every pixel then reads its
+	 * neighbours from that buffer, giving the same values as {@link #applyPixel} one pixel at a time.
+	 */
+	default void applyRegion(BigContext<?> context, Area parent, int x, int z, int width, int depth, int[] out) {
+		int parentX = this.getParentMin(x);
+		int parentZ = this.getParentMin(z);
+		Area input = BufferedArea.of(parent, parentX, parentZ, this.getParentMax(x + width - 1) - parentX + 1, this.getParentMax(z + depth - 1) - parentZ + 1);
+
+		for (int dz = 0; dz < depth; dz++) {
+			for (int dx = 0; dx < width; dx++) {
+				context.initRandom(x + dx, z + dz);
+				out[dx + dz * width] = this.applyPixel(context, input, x + dx, z + dz);
+			}
+		}
+	}
+}
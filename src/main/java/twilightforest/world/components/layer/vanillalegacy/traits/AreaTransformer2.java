@@ -2,6 +2,7 @@ package twilightforest.world.components.layer.vanillalegacy.traits;
 
 import twilightforest.world.components.layer.vanillalegacy.area.Area;
 import twilightforest.world.components.layer.vanillalegacy.area.AreaFactory;
+import twilightforest.world.components.layer.vanillalegacy.area.BufferedArea;
 import twilightforest.world.components.layer.vanillalegacy.context.BigContext;
 import twilightforest.world.components.layer.vanillalegacy.context.Context;
 
@@ -10,12 +11,31 @@ public interface AreaTransformer2 extends DimensionTransformer {
 		return () -> {
 			R r = p_77022_.make();
 			R r1 = p_77023_.make();
-			return p_77021_.createResult((p_164653_, p_164654_) -> {
+			return p_77021_.createBatchedResult((p_164653_, p_164654_) -> {
 				p_77021_.initRandom(p_164653_, p_164654_);
 				return this.applyPixel(p_77021_, r, r1, p_164653_, p_164654_);
-			}, r, r1);
+			}, (x, z, width, depth, out) -> this.applyRegion(p_77021_, r, r1, x, z, width, depth, out), r, r1);
 		};
 	}
 
 	int applyPixel(Context p_77024_, Area p_77025_, Area p_77026_, int p_77027_, int p_77028_);
+
+	/**
+	 * Evaluates a whole block at once, see {@link AreaTransformer1#applyRegion}. Both parents share the same footprint.
+	 */
+	default void applyRegion(BigContext<?> context, Area parent1, Area parent2, int x, int z, int width, int depth, int[] out) {
+		int parentX = this.getParentMin(x);
+		int parentZ = this.getParentMin(z);
+		int parentWidth = this.getParentMax(x + width - 1) - parentX + 1;
+		int parentDepth = this.getParentMax(z + depth - 1) - parentZ + 1;
+		Area input1 = BufferedArea.of(parent1, parentX, parentZ, parentWidth, parentDepth);
+		Area input2 = BufferedArea.of(parent2, parentX, parentZ, parentWidth, parentDepth);
+
+		for (int dz = 0; dz < depth; dz++) {
+			for (int dx = 0; dx < width; dx++) {
+				context.initRandom(x + dx, z + dz);
+				out[dx + dz * width] = this.applyPixel(context, input1, input2, x + dx, z + dz);
+			}
+		}
+	}
 }
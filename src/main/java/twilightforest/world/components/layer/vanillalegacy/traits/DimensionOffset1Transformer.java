@@ -8,4 +8,12 @@ public interface DimensionOffset1Transformer extends DimensionTransformer {
 	default int getParentY(int p_77072_) {
 		return p_77072_ - 1;
 	}
+
+	default int getParentMin(int pos) {
+		return pos - 1;
+	}
+
+	default int getParentMax(int pos) {
+		return pos + 1;
+	}
 }
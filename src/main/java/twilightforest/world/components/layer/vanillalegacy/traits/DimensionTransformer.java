@@ -6,4 +6,19 @@ public interface DimensionTransformer extends LayerBiomes {
 	int getParentX(int p_77073_);
 
 	int getParentY(int p_77074_);
+
+	/**
+	 * Lowest parent coordinate read while evaluating the pixel at {@code pos}, on either axis. Only used to size the
+	 * buffer a region is evaluated from, so reads outside of it are still correct, just slower.
+	 */
+	default int getParentMin(int pos) {
+		return this.getParentX(pos);
+	}
+
+	/**
+	 * Highest parent coordinate read while evaluating the pixel at {@code pos}, on either axis.
+	 */
+	default int getParentMax(int pos) {
+		return this.getParentX(pos);
+	}
 }
@@ -0,0 +1,9 @@
+package twilightforest.world.components.layer.vanillalegacy.traits;
+
+/**
+ * Batch counterpart of {@link PixelTransformer}. Fills {@code out} with the values of the {@code width} x {@code depth}
+ * block starting at {@code x, z}, laid out row by row along x.
+ */
+public interface RegionTransformer {
+	void apply(int x, int z, int width, int depth, int[] out);
+}
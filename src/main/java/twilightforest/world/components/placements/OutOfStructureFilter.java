@@ -4,7 +4,6 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.levelgen.placement.PlacementContext;
 import net.minecraft.world.level.levelgen.placement.PlacementModifier;
 import net.minecraft.world.level.levelgen.placement.PlacementModifierType;
@@ -47,13 +46,13 @@ public class OutOfStructureFilter extends PlacementModifier {
 
 	@Override
 	public Stream<BlockPos> getPositions(PlacementContext worldDecoratingHelper, Random random, BlockPos blockPos) {
-		if (!(worldDecoratingHelper.getLevel().getLevel().getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight tfChunkGen))
+		if (!(worldDecoratingHelper.getLevel().getLevel().getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight))
 			return Stream.of(blockPos);
 
 		// Feature Center
 		BlockPos.MutableBlockPos featurePos = TFFeature.getNearestCenterXYZ(blockPos.getX() >> 4, blockPos.getZ() >> 4).mutable();
 
-		final TFFeature feature = tfChunkGen.getFeatureCached(new ChunkPos(featurePos), worldDecoratingHelper.getLevel());
+		final TFFeature feature = TFFeature.generateFeature(featurePos.getX() >> 4, featurePos.getZ() >> 4, worldDecoratingHelper.getLevel());
 
 		if ((!occupiesSurface || feature.surfaceDecorationsAllowed) && (!occupiesUnderground || feature.undergroundDecoAllowed))
 			return Stream.of(blockPos);
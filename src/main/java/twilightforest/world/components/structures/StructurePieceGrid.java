@@ -0,0 +1,69 @@
+package twilightforest.world.components.structures;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+import net.minecraft.world.level.levelgen.structure.StructurePieceAccessor;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link StructurePieceAccessor} that also files every piece into a coarse grid, so collision checks while a big
+ * structure is being put together only look at the pieces nearby instead of every piece placed so far.
+ * <p>
+ * Answers exactly like the flat list would: out of all the pieces intersecting the box, the one added first. Pieces
+ * still end up in the wrapped accessor in the same order, so layouts don't change. Pieces are expected to have their
+ * final bounding box by the time they are added, which all of ours do.
+ */
+public class StructurePieceGrid implements StructurePieceAccessor {
+	// Most of our pieces are somewhere between 5 and 50 blocks across
+	private static final int CELL_SHIFT = 5;
+
+	private final StructurePieceAccessor pieces;
+	private final Long2ObjectMap<List<Entry>> cells = new Long2ObjectOpenHashMap<>();
+	private int added;
+
+	public StructurePieceGrid(StructurePieceAccessor pieces) {
+		this.pieces = pieces;
+	}
+
+	@Override
+	public void addPiece(StructurePiece piece) {
+		this.pieces.addPiece(piece);
+
+		Entry entry = new Entry(piece, this.added++);
+		BoundingBox box = piece.getBoundingBox();
+		for (int x = box.minX() >> CELL_SHIFT; x <= box.maxX() >> CELL_SHIFT; x++) {
+			for (int z = box.minZ() >> CELL_SHIFT; z <= box.maxZ() >> CELL_SHIFT; z++) {
+				this.cells.computeIfAbsent(ChunkPos.asLong(x, z), key -> new ArrayList<>(2)).add(entry);
+			}
+		}
+	}
+
+	@Nullable
+	@Override
+	public StructurePiece findCollisionPiece(BoundingBox box) {
+		Entry first = null;
+		for (int x = box.minX() >> CELL_SHIFT; x <= box.maxX() >> CELL_SHIFT; x++) {
+			for (int z = box.minZ() >> CELL_SHIFT; z <= box.maxZ() >> CELL_SHIFT; z++) {
+				List<Entry> cell = this.cells.get(ChunkPos.asLong(x, z));
+				if (cell == null)
+					continue;
+
+				for (int i = 0; i < cell.size(); i++) {
+					Entry entry = cell.get(i);
+					if ((first == null || entry.order < first.order) && entry.piece.getBoundingBox().intersects(box))
+						first = entry;
+				}
+			}
+		}
+		return first != null ? first.piece : null;
+	}
+
+	private record Entry(StructurePiece piece, int order) {
+	}
+}
@@ -12,6 +12,8 @@ import twilightforest.TwilightForestMod;
 import twilightforest.block.TFBlocks;
 import twilightforest.world.registration.features.TFTreeFeatures;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -57,7 +59,7 @@ public class TFMaze {
 
 	protected int rawWidth;
 	protected int rawDepth;
-	protected int[] storage;
+	protected byte[] storage; // every value we store is tiny, see ROOM and DOOR
 
 	public static final int OUT_OF_BOUNDS = Integer.MIN_VALUE;
 	public static final int OOB = OUT_OF_BOUNDS;
@@ -86,7 +88,7 @@ public class TFMaze {
 
 		this.rawWidth = width * 2 + 1;
 		this.rawDepth = depth * 2 + 1;
-		storage = new int[rawWidth * rawDepth];
+		storage = new byte[rawWidth * rawDepth];
 
 		rand = new Random();
 	}
@@ -157,11 +159,11 @@ public class TFMaze {
 	}
 
 	/**
-	 * Puts a value into the raw storage.
+	 * Puts a value into the raw storage.  Values have to fit in a byte.
 	 */
 	public void putRaw(int rawx, int rawz, int value) {
 		if (rawx >= 0 && rawx < rawWidth && rawz >= 0 && rawz < rawDepth) {
-			storage[rawz * rawWidth + rawx] = value;
+			storage[rawz * rawWidth + rawx] = (byte) value;
 		}
 	}
 
@@ -187,39 +189,38 @@ public class TFMaze {
 	 * Copy the maze into a StructureTFComponentOld
 	 */
 	public void copyToStructure(WorldGenLevel world, StructureFeatureManager manager, ChunkGenerator generator, int dx, int dy, int dz, TFStructureComponentOld component, BoundingBox sbb) {
+		// every cell still rolls its dice in the same order, but only columns inside the chunk being generated get placed
+		BoundingBox local = component.getLocalBounds(sbb);
+		int unit = evenBias + oddBias;
+
+		BlockState wallColumn = wallBlocks == null ? wallBlockState : null;
+
 		for (int x = 0; x < rawWidth; x++) {
 			for (int z = 0; z < rawDepth; z++) {
-				// only draw walls.  if the data is 0 the there's a wall
-				if (getRaw(x, z) == 0) {
-					int mdx = dx + (x / 2 * (evenBias + oddBias));
-					int mdz = dz + (z / 2 * (evenBias + oddBias));
+				int raw = getRaw(x, z);
+				if (raw != 0 && raw != DOOR)
+					continue;
 
-					if (evenBias > 1) {
-						mdx--;
-						mdz--;
-					}
+				int mdx = dx + (x / 2 * unit);
+				int mdz = dz + (z / 2 * unit);
+
+				if (evenBias > 1) {
+					mdx--;
+					mdz--;
+				}
 
+				if (raw == 0) {
+					// only draw walls.  if the data is 0 the there's a wall
 					if (isEven(x) && isEven(z)) {
 						if (type == 4 && shouldTree(x, z)) {
 							// occasionally make a tree
 							putCanopyTree(world, generator, mdx, dy, mdz, component, sbb);
 						} else {
 							// make a block!
+							BlockState post = shouldPillar(x, z) ? pillarBlockState : wallColumn;
 							for (int even = 0; even < evenBias; even++) {
 								for (int even2 = 0; even2 < evenBias; even2++) {
-									for (int y = 0; y < head; y++) {
-										putHeadBlock(world, mdx + even, dy + tall + y, mdz + even2, component, sbb);
-									}
-									for (int y = 0; y < tall; y++) {
-										if (shouldPillar(x, z)) {
-											putPillarBlock(world, mdx + even, dy + y, mdz + even2, component, sbb);
-										} else {
-											putWallBlock(world, mdx + even, dy + y, mdz + even2, component, sbb);
-										}
-									}
-									for (int y = 1; y <= roots; y++) {
-										putRootBlock(world, mdx + even, dy - y, mdz + even2, component, sbb);
-									}
+									putColumn(world, dy, component, sbb, local, mdx + even, mdz + even2, post);
 								}
 							}
 						}
@@ -228,7 +229,7 @@ public class TFMaze {
 						// make a | vertical | wall!
 						for (int even = 0; even < evenBias; even++) {
 							for (int odd = 1; odd <= oddBias; odd++) {
-								makeWallThing(world, dy, component, sbb, mdx, mdz, even, odd);
+								putColumn(world, dy, component, sbb, local, mdx + even, mdz + odd, wallColumn);
 							}
 						}
 					}
@@ -236,32 +237,16 @@ public class TFMaze {
 						// make a - horizontal - wall!
 						for (int even = 0; even < evenBias; even++) {
 							for (int odd = 1; odd <= oddBias; odd++) {
-								makeWallThing(world, dy, component, sbb, mdx, mdz, odd, even);
+								putColumn(world, dy, component, sbb, local, mdx + odd, mdz + even, wallColumn);
 							}
 						}
 					}
-				} else if (getRaw(x, z) == DOOR) {
-					int mdx = dx + (x / 2 * (evenBias + oddBias));
-					int mdz = dz + (z / 2 * (evenBias + oddBias));
-
-					if (evenBias > 1) {
-						mdx--;
-						mdz--;
-					}
-
+				} else {
 					if (isEven(x) && !isEven(z)) {
 						// make a | vertical | door!
 						for (int even = 0; even < evenBias; even++) {
 							for (int odd = 1; odd <= oddBias; odd++) {
-								for (int y = 0; y < head; y++) {
-									putHeadBlock(world, mdx + even, dy + tall + y, mdz + odd, component, sbb);
-								}
-								for (int y = 0; y < tall; y++) {
-									putDoorBlock(world, mdx + even, dy + y, mdz + odd, component, sbb);
-								}
-								for (int y = 1; y <= roots; y++) {
-									putRootBlock(world, mdx + even, dy - y, mdz + odd, component, sbb);
-								}
+								putColumn(world, dy, component, sbb, local, mdx + even, mdz + odd, doorBlockState);
 							}
 						}
 					}
@@ -269,15 +254,7 @@ public class TFMaze {
 						// make a - horizontal - door!
 						for (int even = 0; even < evenBias; even++) {
 							for (int odd = 1; odd <= oddBias; odd++) {
-								for (int y = 0; y < head; y++) {
-									putHeadBlock(world, mdx + odd, dy + tall + y, mdz + even, component, sbb);
-								}
-								for (int y = 0; y < tall; y++) {
-									putDoorBlock(world, mdx + odd, dy + y, mdz + even, component, sbb);
-								}
-								for (int y = 1; y <= roots; y++) {
-									putRootBlock(world, mdx + odd, dy - y, mdz + even, component, sbb);
-								}
+								putColumn(world, dy, component, sbb, local, mdx + odd, mdz + even, doorBlockState);
 							}
 						}
 					}
@@ -288,38 +265,50 @@ public class TFMaze {
 		// instead of putting placetorches in a seperate function, I just put it here.
 		for (int x = 0; x < rawWidth; x++) {
 			for (int z = 0; z < rawDepth; z++) {
-				if (getRaw(x, z) == 0) {
-					int mdx = dx + (x / 2 * (evenBias + oddBias));
+				if (getRaw(x, z) == 0 && isEven(x) && isEven(z)) {
+					int mdx = dx + (x / 2 * unit);
 					int mdy = dy + 1;
-					int mdz = dz + (z / 2 * (evenBias + oddBias));
+					int mdz = dz + (z / 2 * unit);
 
-					if (isEven(x) && isEven(z)) {
-						if (shouldTorch(x, z) && component.getBlock(world, mdx, mdy, mdz, sbb).getBlock() == wallBlockState.getBlock()) {
-							component.placeBlock(world, torchBlockState, mdx, mdy, mdz, sbb);
-						}
+					if (shouldTorch(x, z) && isInside(local, mdx, mdz) && component.getBlock(world, mdx, mdy, mdz, sbb).getBlock() == wallBlockState.getBlock()) {
+						component.placeBlock(world, torchBlockState, mdx, mdy, mdz, sbb);
 					}
 				}
 			}
 		}
 	}
 
-	private void makeWallThing(WorldGenLevel world, int dy, TFStructureComponentOld component, BoundingBox sbb, int mdx, int mdz, int even, int odd) {
-		for (int y = 0; y < head; y++) {
-			putHeadBlock(world, mdx + even, dy + tall + y, mdz + odd, component, sbb);
-		}
-		for (int y = 0; y < tall; y++) {
-			putWallBlock(world, mdx + even, dy + y, mdz + odd, component, sbb);
-		}
-		for (int y = 1; y <= roots; y++) {
-			putRootBlock(world, mdx + even, dy - y, mdz + odd, component, sbb);
-		}
+	private static boolean isInside(BoundingBox local, int x, int z) {
+		return x >= local.minX() && x <= local.maxX() && z >= local.minZ() && z <= local.maxZ();
 	}
 
 	/**
-	 * Puts a wall block in the structure, if pillar blocks are properly specified
+	 * Places the head, middle and roots of one column of wall or door. A null middle means the wall block selector picks every block.
+	 * Columns outside the chunk being generated place nothing, but still use up the selector's random numbers.
 	 */
-	private void putPillarBlock(WorldGenLevel world, int x, int y, int z, TFStructureComponentOld component, BoundingBox sbb) {
-		component.placeBlock(world, pillarBlockState, x, y, z, sbb);
+	private void putColumn(WorldGenLevel world, int dy, TFStructureComponentOld component, BoundingBox sbb, BoundingBox local, int x, int z, @Nullable BlockState middle) {
+		if (!isInside(local, x, z)) {
+			if (middle == null) {
+				for (int y = 0; y < tall; y++) {
+					wallBlocks.next(rand, x, dy + y, z, true);
+				}
+			}
+			return;
+		}
+
+		if (head > 0) {
+			component.placeColumn(world, headBlockState, x, dy + tall, dy + tall + head - 1, z, sbb);
+		}
+		if (middle != null) {
+			component.placeColumn(world, middle, x, dy, dy + tall - 1, z, sbb);
+		} else {
+			for (int y = 0; y < tall; y++) {
+				putWallBlock(world, x, dy + y, z, component, sbb);
+			}
+		}
+		if (roots > 0) {
+			component.placeColumn(world, rootBlockState, x, dy - roots, dy - 1, z, sbb);
+		}
 	}
 
 	/**
@@ -341,13 +330,6 @@ public class TFMaze {
 		}
 	}
 
-	/**
-	 * Puts a wall block in the structure, at the specified structure coordinates.
-	 */
-	private void putDoorBlock(WorldGenLevel world, int x, int y, int z, TFStructureComponentOld component, BoundingBox sbb) {
-		component.placeBlock(world, doorBlockState, x, y, z, sbb);
-	}
-
 	/**
 	 * Carves a block into the world.
 	 * TODO: check what's there?  maybe only certain blocks?
@@ -356,28 +338,6 @@ public class TFMaze {
 		world.setBlock(new BlockPos(x, y, z), Blocks.AIR.defaultBlockState(), 2);
 	}
 
-	private void putHeadBlock(WorldGenLevel world, int x, int y, int z) {
-		world.setBlock(new BlockPos(x, y, z), headBlockState, 2);
-	}
-
-	private void putHeadBlock(WorldGenLevel world, int x, int y, int z, TFStructureComponentOld component, BoundingBox sbb) {
-		component.placeBlock(world, headBlockState, x, y, z, sbb);
-	}
-
-	/**
-	 * Puts a root block in the world, at the specified world coordinates.
-	 */
-	private void putRootBlock(WorldGenLevel world, int x, int y, int z) {
-		world.setBlock(new BlockPos(x, y, z), rootBlockState, 2);
-	}
-
-	/**
-	 * Puts a root block in the structure, at the specified structure coordinates.
-	 */
-	private void putRootBlock(WorldGenLevel world, int x, int y, int z, TFStructureComponentOld component, BoundingBox sbb) {
-		component.placeBlock(world, rootBlockState, x, y, z, sbb);
-	}
-
 	/**
 	 * Puts a canopy tree in the world at the specified structure coordinates.
 	 */
@@ -534,66 +494,91 @@ public class TFMaze {
 	}
 
 	/**
-	 * Mark the cell as visited.  If we have any unvisited neighbors, pick one randomly, carve the wall between them, then call this function on that neighbor.
-	 *
-	 * @param sx
-	 * @param sz
+	 * Mark the cell as visited.  If we have any unvisited neighbors, pick one randomly, carve the wall between them, then do the same from that neighbor.
+	 * Once the neighbor has run out of free spaces, try this cell again, up to 2 more times.
+	 * <p>
+	 * This used to call itself for each of those steps, it now keeps its own stack instead so big mazes can't overflow the thread's.
+	 * The steps and random rolls happen in exactly the same order, so a seed still gives the same maze.
 	 */
 	public void rbGen(int sx, int sz) {
+		// x, z and how far along each cell is: 0 = about to visit, 1 = back from its neighbor, 2 = back from the first retry
+		int[] stack = new int[3 * 16];
+		int top = 0;
+		stack[0] = sx;
+		stack[1] = sz;
+		stack[2] = 0;
+
+		while (top >= 0) {
+			int frame = top * 3;
+			int x = stack[frame];
+			int z = stack[frame + 1];
+
+			switch (stack[frame + 2]) {
+				case 0 -> {
+					long next = visitCell(x, z);
+					if (next == Long.MIN_VALUE) {
+						top--;
+						continue;
+					}
+					stack[frame + 2] = 1;
+					x = (int) (next >> 32);
+					z = (int) next;
+				}
+				case 1 -> stack[frame + 2] = 2;
+				default -> {
+					// the second retry is the last thing this cell does, so it can just take its place
+					stack[frame + 2] = 0;
+					continue;
+				}
+			}
+
+			top++;
+			if ((top + 1) * 3 > stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			stack[top * 3] = x;
+			stack[top * 3 + 1] = z;
+			stack[top * 3 + 2] = 0;
+		}
+	}
+
+	/**
+	 * One step of {@link #rbGen}: marks the cell and carves a way into a random unvisited neighbor.
+	 *
+	 * @return the neighbor packed as x in the high and z in the low half, or Long.MIN_VALUE if there was none
+	 */
+	private long visitCell(int sx, int sz) {
 		// mark cell as visited
 		putCell(sx, sz, 1);
 
 		// count the unvisted neighbors
-		int unvisited = 0;
-		if (cellEquals(sx + 1, sz, 0)) {
-			unvisited++;
-		}
-		if (cellEquals(sx - 1, sz, 0)) {
-			unvisited++;
-		}
-		if (cellEquals(sx, sz + 1, 0)) {
-			unvisited++;
-		}
-		if (cellEquals(sx, sz - 1, 0)) {
-			unvisited++;
-		}
+		boolean east = isUnvisited(sx + 1, sz);
+		boolean west = isUnvisited(sx - 1, sz);
+		boolean south = isUnvisited(sx, sz + 1);
+		boolean north = isUnvisited(sx, sz - 1);
+		int unvisited = (east ? 1 : 0) + (west ? 1 : 0) + (south ? 1 : 0) + (north ? 1 : 0);
 
 		// if there are no unvisited neighbors, return
 		if (unvisited == 0) {
-			return;
+			return Long.MIN_VALUE;
 		}
 
 		// otherwise, pick a random neighbor to visit
 		int rn = rand.nextInt(unvisited);
-		int dx, dz;
-		dx = dz = 0;
-
-		if (cellEquals(sx + 1, sz, 0)) {
-			if (rn == 0) {
-				dx = sx + 1;
-				dz = sz;
-			}
-			rn--;
-		}
-		if (cellEquals(sx - 1, sz, 0)) {
-			if (rn == 0) {
-				dx = sx - 1;
-				dz = sz;
-			}
-			rn--;
-		}
-		if (cellEquals(sx, sz + 1, 0)) {
-			if (rn == 0) {
-				dx = sx;
-				dz = sz + 1;
-			}
-			rn--;
-		}
-		if (cellEquals(sx, sz - 1, 0)) {
-			if (rn == 0) {
-				dx = sx;
-				dz = sz - 1;
-			}
+		int dx = 0, dz = 0;
+
+		if (east && rn-- == 0) {
+			dx = sx + 1;
+			dz = sz;
+		} else if (west && rn-- == 0) {
+			dx = sx - 1;
+			dz = sz;
+		} else if (south && rn-- == 0) {
+			dx = sx;
+			dz = sz + 1;
+		} else if (north && rn == 0) {
+			dx = sx;
+			dz = sz - 1;
 		}
 
 		// carve wall or door
@@ -603,11 +588,13 @@ public class TFMaze {
 			putWall(sx, sz, dx, dz, 2);
 		}
 
-		// call function recursively at the destination
-		rbGen(dx, dz);
+		return (long) dx << 32 | (dz & 0xFFFFFFFFL);
+	}
 
-		// the destination has run out of free spaces, let's try this square again, up to 2 more times
-		rbGen(sx, sz);
-		rbGen(sx, sz);
+	/**
+	 * Same as cellEquals(x, z, 0), straight off the storage
+	 */
+	private boolean isUnvisited(int x, int z) {
+		return x >= 0 && x < width && z >= 0 && z < depth && storage[(z * 2 + 1) * rawWidth + x * 2 + 1] == 0;
 	}
 }
@@ -174,6 +174,59 @@ public abstract class TFStructureComponent extends StructurePiece implements Twi
 	       }
 	   }
 
+	/**
+	 * Same as calling {@link #placeBlock} for every y from minY to maxY, but the position and state are only worked out
+	 * once. Blocks still go through the level's setBlock, anything with a fluid or post processing through placeBlock.
+	 */
+	protected void placeColumn(WorldGenLevel world, BlockState state, int x, int minY, int maxY, int z, BoundingBox sbb) {
+		int worldX = this.getWorldX(x, z);
+		int worldZ = this.getWorldZ(x, z);
+		int offsetY = this.getWorldY(minY) - minY;
+		int bottom = Math.max(minY + offsetY, sbb.minY());
+		int top = Math.min(maxY + offsetY, sbb.maxY());
+		if (bottom > top || worldX < sbb.minX() || worldX > sbb.maxX() || worldZ < sbb.minZ() || worldZ > sbb.maxZ())
+			return;
+
+		BlockState placed = state;
+		if (this.mirror != Mirror.NONE)
+			placed = placed.mirror(this.mirror);
+		if (this.rotation != Rotation.NONE)
+			placed = placed.rotate(this.rotation);
+
+		boolean plain = placed.getFluidState().isEmpty() && !BLOCKS_NEEDING_POSTPROCESSING.contains(placed.getBlock());
+
+		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(worldX, bottom, worldZ);
+		for (int y = bottom; y <= top; y++) {
+			pos.setY(y);
+			if (plain) {
+				world.setBlock(pos, placed, 2);
+			} else {
+				this.placeBlock(world, state, x, y - offsetY, z, sbb);
+			}
+		}
+	}
+
+	/**
+	 * @return the part of the box this piece could place blocks in, in structure coordinates along x and z
+	 */
+	protected BoundingBox getLocalBounds(BoundingBox sbb) {
+		int originX = this.getWorldX(0, 0);
+		int originZ = this.getWorldZ(0, 0);
+		// every orientation maps each local axis onto a single world axis, either flipped or not
+		boolean swapped = this.getWorldX(1, 0) == originX;
+		int signX = swapped ? this.getWorldX(0, 1) - originX : this.getWorldX(1, 0) - originX;
+		int signZ = swapped ? this.getWorldZ(1, 0) - originZ : this.getWorldZ(0, 1) - originZ;
+
+		int x1 = (sbb.minX() - originX) * signX;
+		int x2 = (sbb.maxX() - originX) * signX;
+		int z1 = (sbb.minZ() - originZ) * signZ;
+		int z2 = (sbb.maxZ() - originZ) * signZ;
+		if (swapped) {
+			return new BoundingBox(Math.min(z1, z2), sbb.minY(), Math.min(x1, x2), Math.max(z1, z2), sbb.maxY(), Math.max(x1, x2));
+		}
+		return new BoundingBox(Math.min(x1, x2), sbb.minY(), Math.min(z1, z2), Math.max(x1, x2), sbb.maxY(), Math.max(z1, z2));
+	}
+
 	@SuppressWarnings({"SameParameterValue", "unused"})
 	protected void setDebugEntity(Level world, BlockPos blockpos, String s) {
 		if (shouldDebug()) {
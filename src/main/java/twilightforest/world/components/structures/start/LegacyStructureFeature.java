@@ -2,6 +2,8 @@ package twilightforest.world.components.structures.start;
 
 import net.minecraft.world.level.levelgen.GenerationStep;
 import net.minecraft.world.level.levelgen.feature.configurations.NoneFeatureConfiguration;
+import net.minecraft.world.level.levelgen.structure.StructurePieceAccessor;
+import twilightforest.world.components.structures.StructurePieceGrid;
 import twilightforest.world.registration.TFFeature;
 
 import java.util.Random;
@@ -11,7 +13,11 @@ public class LegacyStructureFeature extends TwilightStructureFeature<NoneFeature
     public final TFFeature feature;
 
     public LegacyStructureFeature(@Deprecated TFFeature feature) {
-        super(NoneFeatureConfiguration.CODEC, configContext -> feature.generatePieces(configContext.chunkGenerator(), configContext.structureManager(), configContext.chunkPos(), configContext.heightAccessor(), new Random()).map(piece -> (structurePiecesBuilder, context) -> structurePiecesBuilder.addPiece(piece)));
+        super(NoneFeatureConfiguration.CODEC, configContext -> feature.generatePieces(configContext.chunkGenerator(), configContext.structureManager(), configContext.chunkPos(), configContext.heightAccessor(), new Random()).map(piece -> (structurePiecesBuilder, context) -> {
+            // Everything assembled from the start piece should go through the grid, big castles do a lot of collision checks
+            StructurePieceAccessor pieces = new StructurePieceGrid(structurePiecesBuilder);
+            pieces.addPiece(piece);
+        }));
         this.feature = feature;
     }
 
@@ -0,0 +1,149 @@
+package twilightforest.world.components.structures.start;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.data.BuiltinRegistries;
+import net.minecraft.util.random.WeightedRandomList;
+import net.minecraft.world.entity.MobCategory;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.StructureFeatureManager;
+import net.minecraft.world.level.biome.MobSpawnSettings;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.levelgen.feature.ConfiguredStructureFeature;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import twilightforest.TwilightForestMod;
+import twilightforest.world.components.structures.TFStructureComponent;
+import twilightforest.world.registration.TFFeature;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers {@link TFStructureStart#gatherPotentialSpawns} for the natural spawner without going through the registry
+ * and structure references on every attempt. The Twilight structures reaching into a chunk, and which of their pieces
+ * do, are worked out once per chunk and kept for the most recent chunks. The spawn tables come prebuilt from
+ * {@link TFFeature}.
+ * <p>
+ * A start is a new object every time its chunk loads, so the chunks it covers are dropped along with the chunk it came
+ * from (see {@link twilightforest.world.registration.TFDimensions}).
+ */
+public class TFStructureSpawns {
+	private static final int MAX_CHUNKS = 1024;
+	private static final StructureSpawns[] NONE = new StructureSpawns[0];
+	@Nullable
+	private static List<ConfiguredStructureFeature<?, ?>> twilightStructures;
+
+	private final Long2ObjectLinkedOpenHashMap<StructureSpawns[]> chunks = new Long2ObjectLinkedOpenHashMap<>();
+
+	/**
+	 * The configured Twilight structures with a {@link LegacyStructureFeature}, in registry order.
+	 */
+	public static List<ConfiguredStructureFeature<?, ?>> getTwilightStructures() {
+		List<ConfiguredStructureFeature<?, ?>> structures = twilightStructures;
+		if (structures == null) {
+			twilightStructures = structures = BuiltinRegistries.CONFIGURED_STRUCTURE_FEATURE.stream()
+					.filter(feature -> feature.feature.getRegistryName().getNamespace().equals(TwilightForestMod.ID) && feature.feature instanceof LegacyStructureFeature)
+					.toList();
+		}
+		return structures;
+	}
+
+	/**
+	 * @return the spawn table of the structure at the position, or null to leave spawning up to the biome
+	 */
+	@Nullable
+	public WeightedRandomList<MobSpawnSettings.SpawnerData> getSpawnsAt(StructureFeatureManager structureManager, MobCategory classification, BlockPos pos) {
+		StructureSpawns[] structures = this.getStructures(structureManager, pos);
+
+		for (StructureSpawns structure : structures) {
+			if (!structure.start.getBoundingBox().isInside(pos))
+				continue;
+
+			if (classification != MobCategory.MONSTER)
+				return structure.feature.getSpawnTable(classification);
+			if (structure.start instanceof TFStructureStart<?> s && s.isConquered())
+				return null;
+			final int index = structure.getSpawnListIndexAt(pos);
+			if (index < 0)
+				return null;
+			return structure.feature.getMonsterSpawnTable(index);
+		}
+		return null;
+	}
+
+	public void removeChunk(ChunkAccess chunk) {
+		synchronized (this.chunks) {
+			if (this.chunks.isEmpty())
+				return;
+			for (StructureStart start : chunk.getAllStarts().values()) {
+				if (!(start.getFeature().feature instanceof LegacyStructureFeature))
+					continue;
+				BoundingBox box = start.getBoundingBox();
+				for (int x = box.minX() >> 4; x <= box.maxX() >> 4; x++) {
+					for (int z = box.minZ() >> 4; z <= box.maxZ() >> 4; z++) {
+						this.chunks.remove(ChunkPos.asLong(x, z));
+					}
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (this.chunks) {
+			this.chunks.clear();
+		}
+	}
+
+	private StructureSpawns[] getStructures(StructureFeatureManager structureManager, BlockPos pos) {
+		long key = ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+		synchronized (this.chunks) {
+			StructureSpawns[] structures = this.chunks.getAndMoveToLast(key);
+			if (structures != null)
+				return structures;
+		}
+
+		StructureSpawns[] structures = this.findStructures(structureManager, pos);
+		synchronized (this.chunks) {
+			this.chunks.putAndMoveToLast(key, structures);
+			if (this.chunks.size() > MAX_CHUNKS)
+				this.chunks.removeFirst();
+		}
+		return structures;
+	}
+
+	private StructureSpawns[] findStructures(StructureFeatureManager structureManager, BlockPos pos) {
+		SectionPos section = SectionPos.of(pos);
+		BoundingBox column = new BoundingBox(section.minBlockX(), Integer.MIN_VALUE, section.minBlockZ(), section.maxBlockX(), Integer.MAX_VALUE, section.maxBlockZ());
+		List<StructureSpawns> found = new ArrayList<>();
+
+		for (ConfiguredStructureFeature<?, ?> structure : getTwilightStructures()) {
+			TFFeature feature = ((LegacyStructureFeature) structure.feature).feature;
+			for (StructureStart start : structureManager.startsForFeature(section, structure)) {
+				found.add(new StructureSpawns(start, feature, start.getPieces().stream().filter(piece -> piece.getBoundingBox().intersects(column)).toArray(StructurePiece[]::new)));
+			}
+		}
+
+		return found.isEmpty() ? NONE : found.toArray(new StructureSpawns[0]);
+	}
+
+	private record StructureSpawns(StructureStart start, TFFeature feature, StructurePiece[] pieces) {
+		// pieces are in the order of the start, so the answer matches walking the whole start
+		private int getSpawnListIndexAt(BlockPos pos) {
+			int highestFoundIndex = -1;
+			for (StructurePiece component : this.pieces) {
+				if (component.getBoundingBox().isInside(pos)) {
+					if (component instanceof TFStructureComponent tfComponent) {
+						if (tfComponent.spawnListIndex > highestFoundIndex)
+							highestFoundIndex = tfComponent.spawnListIndex;
+					} else
+						return 0;
+				}
+			}
+			return highestFoundIndex;
+		}
+	}
+}
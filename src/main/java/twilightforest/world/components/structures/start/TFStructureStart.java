@@ -1,7 +1,6 @@
 package twilightforest.world.components.structures.start;
 
 import net.minecraft.core.BlockPos;
-import net.minecraft.data.BuiltinRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.entity.MobCategory;
 import net.minecraft.world.level.ChunkPos;
@@ -13,11 +12,9 @@ import net.minecraft.world.level.levelgen.structure.StructurePiece;
 import net.minecraft.world.level.levelgen.structure.StructureStart;
 import net.minecraft.world.level.levelgen.structure.pieces.PiecesContainer;
 import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
-import twilightforest.TwilightForestMod;
 import twilightforest.world.components.structures.TFStructureComponent;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class TFStructureStart<C extends FeatureConfiguration> extends StructureStart {
 	private boolean conquered = false;
@@ -62,7 +59,7 @@ public class TFStructureStart<C extends FeatureConfiguration> extends StructureS
 	}
 
 	public static List<MobSpawnSettings.SpawnerData> gatherPotentialSpawns(StructureFeatureManager structureManager, MobCategory classification, BlockPos pos) {
-		for (ConfiguredStructureFeature<?, ?> structure : BuiltinRegistries.CONFIGURED_STRUCTURE_FEATURE.stream().filter(feature -> feature.feature.getRegistryName().getNamespace().equals(TwilightForestMod.ID)).collect(Collectors.toList())) {
+		for (ConfiguredStructureFeature<?, ?> structure : TFStructureSpawns.getTwilightStructures()) {
 			StructureStart start = structureManager.getStructureAt(pos, structure);
 			if (!start.isValid())
 				continue;
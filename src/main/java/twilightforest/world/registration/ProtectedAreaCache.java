@@ -0,0 +1,89 @@
+package twilightforest.world.registration;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers, per player, which structures they were last checked against and which feature each one is, so that
+ * digging around inside a structure doesn't redo the whole lookup for every block. Whether the player is locked out
+ * is still asked of the feature every time, advancements can come and go by command or by other mods.
+ * <p>
+ * Entries are dropped when a structure is conquered or reactivated, or the player leaves the dimension. Server thread
+ * only.
+ */
+public final class ProtectedAreaCache {
+	private static final int MAX_AREAS = 8;
+	// Protection boxes live for 60 ticks on the client, this refreshes them well before they fade
+	private static final int PACKET_COOLDOWN = 20;
+
+	private static final Map<UUID, List<Area>> AREAS = new HashMap<>();
+
+	private ProtectedAreaCache() {}
+
+	@Nullable
+	public static Area get(Player player, BlockPos pos) {
+		List<Area> areas = AREAS.get(player.getUUID());
+		if (areas != null) {
+			for (Area area : areas) {
+				if (area.box.isInside(pos))
+					return area;
+			}
+		}
+		return null;
+	}
+
+	public static Area put(Player player, BoundingBox box, TFFeature feature) {
+		List<Area> areas = AREAS.computeIfAbsent(player.getUUID(), uuid -> new ArrayList<>());
+		if (areas.size() >= MAX_AREAS)
+			areas.remove(0);
+		Area area = new Area(box, feature);
+		areas.add(area);
+		return area;
+	}
+
+	public static void invalidate(Player player) {
+		AREAS.remove(player.getUUID());
+	}
+
+	public static void invalidate(BoundingBox box) {
+		for (List<Area> areas : AREAS.values())
+			areas.removeIf(area -> area.box.equals(box));
+	}
+
+	public static class Area {
+		private final BoundingBox box;
+		private final TFFeature feature;
+		private long lastPacketTime = Long.MIN_VALUE;
+
+		private Area(BoundingBox box, TFFeature feature) {
+			this.box = box;
+			this.feature = feature;
+		}
+
+		public BoundingBox getBox() {
+			return this.box;
+		}
+
+		public TFFeature getFeature() {
+			return this.feature;
+		}
+
+		/**
+		 * @return true if the protection packet should be sent again, in which case the cooldown restarts
+		 */
+		public boolean tryResetPacketCooldown(long gameTime) {
+			if (this.lastPacketTime != Long.MIN_VALUE && gameTime - this.lastPacketTime < PACKET_COOLDOWN)
+				return false;
+			this.lastPacketTime = gameTime;
+			return true;
+		}
+	}
+}
@@ -1,6 +1,11 @@
 package twilightforest.world.registration;
 
 import net.minecraft.core.Registry;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import twilightforest.TwilightForestMod;
 import twilightforest.world.components.biomesources.LandmarkBiomeSource;
@@ -19,4 +24,36 @@ public class TFDimensions {
 
 		Registry.register(Registry.CHUNK_GENERATOR, TwilightForestMod.prefix("structure_locating_wrapper"), ChunkGeneratorTwilight.CODEC);
 	}
+
+	@SubscribeEvent
+	public static void loadFeatureIndex(WorldEvent.Load event) {
+		// Grab the index on the server thread, chunk workers only ever read it off the generator
+		if (event.getWorld() instanceof ServerLevel level && level.getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight generator) {
+			generator.setFeatureIndex(TFFeatureIndex.get(level));
+		}
+	}
+
+	@SubscribeEvent
+	public static void unloadStructureIndex(WorldEvent.Unload event) {
+		if (event.getWorld() instanceof ServerLevel level && level.getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight generator) {
+			generator.getStructureIndex().clear();
+			generator.getStructureSpawns().clear();
+		}
+	}
+
+	// Only full chunks count, same as the hasChunk check the reference walk used to do
+	@SubscribeEvent
+	public static void indexStructureStarts(ChunkEvent.Load event) {
+		if (event.getChunk() instanceof LevelChunk chunk && chunk.getLevel() instanceof ServerLevel level && level.getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight generator) {
+			generator.getStructureIndex().addChunk(chunk);
+		}
+	}
+
+	@SubscribeEvent
+	public static void unindexStructureStarts(ChunkEvent.Unload event) {
+		if (event.getChunk() instanceof LevelChunk chunk && chunk.getLevel() instanceof ServerLevel level && level.getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight generator) {
+			generator.getStructureIndex().removeChunk(chunk.getPos().toLong());
+			generator.getStructureSpawns().removeChunk(chunk);
+		}
+	}
 }
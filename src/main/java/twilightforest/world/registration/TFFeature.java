@@ -9,7 +9,9 @@ import net.minecraft.nbt.StringTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.TranslatableComponent;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
+import net.minecraft.util.random.WeightedRandomList;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.LivingEntity;
@@ -22,6 +24,8 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelHeightAccessor;
 import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeManager;
+import net.minecraft.world.level.biome.Climate;
 import net.minecraft.world.level.biome.MobSpawnSettings;
 import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.levelgen.GenerationStep;
@@ -35,6 +39,7 @@ import twilightforest.entity.TFEntities;
 import twilightforest.entity.monster.Kobold;
 import twilightforest.util.IntPair;
 import twilightforest.util.PlayerHelper;
+import twilightforest.world.components.chunkgenerators.ChunkGeneratorTwilight;
 import twilightforest.world.components.structures.*;
 import twilightforest.world.components.structures.courtyard.CourtyardMain;
 import twilightforest.world.components.structures.darktower.DarkTowerMainComponent;
@@ -55,6 +60,9 @@ import java.util.*;
  * Arbiting class that decides what feature goes where in the world, in terms of the major features in the world
  */
 public class TFFeature {
+	// Declared ahead of the features themselves so their constructors can register into it
+	private static final Map<String, TFFeature> FEATURES_BY_NAME = new HashMap<>();
+
 	public static final TFFeature NOTHING = new TFFeature( 0, "no_feature"       , false){ { this.enableDecorations().disableStructure(); } };
 	public static final TFFeature SMALL_HILL = new TFFeature( 1, "small_hollow_hill", true, true ) {
 		{
@@ -457,9 +465,43 @@ public class TFFeature {
 
 	private static int maxPossibleSize;
 
+	// Chunk offsets for getNearestFeature, ordered ring by ring outwards and by x then z within a ring. RING_ENDS[r] is where ring r stops.
+	private static final int[] SPIRAL_X;
+	private static final int[] SPIRAL_Z;
+	private static final int[] RING_ENDS;
+
+	static {
+		int diam = maxPossibleSize * 2 + 1;
+		SPIRAL_X = new int[diam * diam];
+		SPIRAL_Z = new int[diam * diam];
+		RING_ENDS = new int[maxPossibleSize + 1];
+
+		int cell = 0;
+		for (int ring = 0; ring <= maxPossibleSize; ring++) {
+			for (int x = -ring; x <= ring; x++) {
+				for (int z = -ring; z <= ring; z++) {
+					if (Math.max(Math.abs(x), Math.abs(z)) == ring) {
+						SPIRAL_X[cell] = x;
+						SPIRAL_Z[cell] = z;
+						cell++;
+					}
+				}
+			}
+			RING_ENDS[ring] = cell;
+		}
+	}
+
 	private final List<List<MobSpawnSettings.SpawnerData>> spawnableMonsterLists = new ArrayList<>();
 	private final List<MobSpawnSettings.SpawnerData> ambientCreatureList = new ArrayList<>();
 	private final List<MobSpawnSettings.SpawnerData> waterCreatureList = new ArrayList<>();
+	// The lists above as ready to roll tables, built the first time a spawn asks for them
+	private static final WeightedRandomList<MobSpawnSettings.SpawnerData> NO_SPAWNS = WeightedRandomList.create();
+	@Nullable
+	private List<WeightedRandomList<MobSpawnSettings.SpawnerData>> monsterSpawnTables;
+	@Nullable
+	private WeightedRandomList<MobSpawnSettings.SpawnerData> ambientSpawnTable;
+	@Nullable
+	private WeightedRandomList<MobSpawnSettings.SpawnerData> waterSpawnTable;
 
 	private long lastSpawnedHintMonsterTime;
 
@@ -478,6 +520,7 @@ public class TFFeature {
 		this.centerBounds = centerBounds;
 
 		maxPossibleSize = Math.max(this.size, maxPossibleSize);
+		FEATURES_BY_NAME.put(name, this);
 	}
 
 	static void init() {}
@@ -486,6 +529,11 @@ public class TFFeature {
 		return maxPossibleSize;
 	}
 
+	@Nullable
+	public static TFFeature getFeatureByName(String name) {
+		return FEATURES_BY_NAME.get(name);
+	}
+
 	public boolean shouldAdjustToTerrain() {
 		return this.adjustToTerrainHeight;
 	}
@@ -500,11 +548,15 @@ public class TFFeature {
 	}
 
 	public static boolean isInFeatureChunk(int regionX, int regionZ) {
-		int chunkX = regionX >> 4;
-		int chunkZ = regionZ >> 4;
-		BlockPos cc = getNearestCenterXYZ(chunkX, chunkZ);
+		return isFeatureChunk(regionX >> 4, regionZ >> 4);
+	}
+
+	private static boolean isFeatureChunk(int chunkX, int chunkZ) {
+		int regionX = (chunkX + 8) >> 4;
+		int regionZ = (chunkZ + 8) >> 4;
+		long seed = getRegionSeed(regionX, regionZ);
 
-		return chunkX == (cc.getX() >> 4) && chunkZ == (cc.getZ() >> 4);
+		return chunkX == (getCenterX(regionX, seed) >> 4) && chunkZ == (getCenterZ(regionZ, seed) >> 4);
 	}
 
 	/**
@@ -585,12 +637,41 @@ public class TFFeature {
 	 */
 	public static TFFeature generateFeature(int chunkX, int chunkZ, WorldGenLevel world) {
 		// set the chunkX and chunkZ to the center of the biome
-		chunkX = Math.round(chunkX / 16F) * 16;
-		chunkZ = Math.round(chunkZ / 16F) * 16;
+		int featureX = Math.round(chunkX / 16F) * 16;
+		int featureZ = Math.round(chunkZ / 16F) * 16;
+
+		if (world.getLevel().getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight generator && generator.getFeatureIndex() != null) {
+			return generator.getFeatureIndex().getOrGenerate(featureX, featureZ, () -> generateFeatureFromBiome(featureX, featureZ, world));
+		}
+		return generateFeatureFromBiome(featureX, featureZ, world);
+	}
 
+	/**
+	 * Like {@link #getFeatureAt}, but safe to call away from the server thread. Regions that aren't in the feature index
+	 * yet are worked out from the biome source directly, and are not added to it.
+	 */
+	public static TFFeature forecastFeatureAt(int regionX, int regionZ, ServerLevel level) {
+		int featureX = Math.round((regionX >> 4) / 16F) * 16;
+		int featureZ = Math.round((regionZ >> 4) / 16F) * 16;
+
+		ChunkGenerator generator = level.getChunkSource().getGenerator();
+		if (generator instanceof ChunkGeneratorTwilight twilight && twilight.getFeatureIndex() != null) {
+			TFFeature known = twilight.getFeatureIndex().get(featureX, featureZ);
+			if (known != null)
+				return known;
+		}
+
+		// the same fuzzed lookup as generateFeatureFromBiome, just straight from the biome source instead of the chunk
+		Climate.Sampler sampler = generator.climateSampler();
+		BiomeManager biomes = level.getBiomeManager().withDifferentSource((x, y, z) -> generator.getBiomeSource().getNoiseBiome(x, y, z, sampler));
+		Biome biomeAt = biomes.getBiome(new BlockPos((featureX << 4) + 8, 0, (featureZ << 4) + 8)).value();
+		return generateFeature(featureX, featureZ, biomeAt, level.getSeed());
+	}
+
+	private static TFFeature generateFeatureFromBiome(int featureX, int featureZ, WorldGenLevel world) {
 		// what biome is at the center of the chunk?
-		Biome biomeAt = world.getBiome(new BlockPos((chunkX << 4) + 8, 0, (chunkZ << 4) + 8)).value();
-		return generateFeature(chunkX, chunkZ, biomeAt, world.getSeed());
+		Biome biomeAt = world.getBiome(new BlockPos((featureX << 4) + 8, 0, (featureZ << 4) + 8)).value();
+		return generateFeature(featureX, featureZ, biomeAt, world.getSeed());
 	}
 
 	public static TFFeature generateFeature(int chunkX, int chunkZ, Biome biome, long seed) {
@@ -648,33 +729,44 @@ public class TFFeature {
 	 * that feature relative to the current chunk block coordinate system.
 	 */
 	public static TFFeature getNearestFeature(int cx, int cz, WorldGenLevel world, @Nullable IntPair center) {
+		// A feature counts once we're within its size in chunks. The smallest such feature wins, ties going to the lowest x then z.
+		TFFeature nearest = NOTHING;
+		int nearestX = 0;
+		int nearestZ = 0;
+
+		int cell = 0;
+		for (int ring = 0; ring < RING_ENDS.length; ring++) {
+			// anything further out would have to be bigger than what we already have
+			if (nearest != NOTHING && nearest.size < ring) {
+				break;
+			}
 
-		int maxSize = getMaxSize();
-		int diam = maxSize * 2 + 1;
-		TFFeature[] features = new TFFeature[diam * diam];
-
-		for (int rad = 1; rad <= maxSize; rad++) {
-			for (int x = -rad; x <= rad; x++) {
-				for (int z = -rad; z <= rad; z++) {
+			for (; cell < RING_ENDS[ring]; cell++) {
+				int x = SPIRAL_X[cell];
+				int z = SPIRAL_Z[cell];
+				// cheap positional check first, only actual feature chunks need their biome looked at
+				if (!isFeatureChunk(cx + x, cz + z)) {
+					continue;
+				}
 
-					int idx = (x + maxSize) * diam + (z + maxSize);
-					TFFeature directlyAt = features[idx];
-					if (directlyAt == null) {
-						features[idx] = directlyAt = getFeatureDirectlyAt(x + cx, z + cz, world);
-					}
+				TFFeature feature = getFeatureAt((cx + x) << 4, (cz + z) << 4, world);
+				if (feature.size == 0 || feature.size < ring) {
+					continue;
+				}
 
-					if (directlyAt.size == rad) {
-						if (center != null) {
-							center.x = (x << 4) + 8;
-							center.z = (z << 4) + 8;
-						}
-						return directlyAt;
-					}
+				if (nearest == NOTHING || feature.size < nearest.size || (feature.size == nearest.size && (x < nearestX || (x == nearestX && z < nearestZ)))) {
+					nearest = feature;
+					nearestX = x;
+					nearestZ = z;
 				}
 			}
 		}
 
-		return NOTHING;
+		if (nearest != NOTHING && center != null) {
+			center.x = (nearestX << 4) + 8;
+			center.z = (nearestZ << 4) + 8;
+		}
+		return nearest;
 	}
 
 	// [Vanilla Copy] from MapGenStructure#findNearestStructurePosBySpacing; changed 2nd param to be TFFeature instead of MapGenStructure
@@ -768,38 +860,41 @@ public class TFFeature {
 	 * Maybe in the future we'll have to actually search for a feature chunk nearby, but for now this will work.
 	 */
 	public static BlockPos getNearestCenterXYZ(int chunkX, int chunkZ) {
-		// generate random number for the whole biome area
 		int regionX = (chunkX + 8) >> 4;
 		int regionZ = (chunkZ + 8) >> 4;
+		long seed = getRegionSeed(regionX, regionZ);
+
+		return new BlockPos(getCenterX(regionX, seed), TFGenerationSettings.SEALEVEL, getCenterZ(regionZ, seed));//  Math.abs(chunkX % 16) == centerX && Math.abs(chunkZ % 16) == centerZ; FIXME (set sea level hard)
+	}
 
+	// generate random number for the whole biome area
+	private static long getRegionSeed(int regionX, int regionZ) {
 		long seed = regionX * 3129871 ^ regionZ * 116129781L;
-		seed = seed * seed * 42317861L + seed * 7L;
+		return seed * seed * 42317861L + seed * 7L;
+	}
 
+	private static int getCenterX(int regionX, long seed) {
 		int num0 = (int) (seed >> 12 & 3L);
 		int num1 = (int) (seed >> 15 & 3L);
+
+		// slightly randomize center of biome (+/- 3)
+		return getCenterCoord(regionX, 8 + num0 - num1);
+	}
+
+	private static int getCenterZ(int regionZ, long seed) {
 		int num2 = (int) (seed >> 18 & 3L);
 		int num3 = (int) (seed >> 21 & 3L);
 
-		// slightly randomize center of biome (+/- 3)
-		int centerX = 8 + num0 - num1;
-		int centerZ = 8 + num2 - num3;
+		return getCenterCoord(regionZ, 8 + num2 - num3);
+	}
 
+	private static int getCenterCoord(int region, int center) {
 		// centers are offset strangely depending on +/-
-		int ccz;
-		if (regionZ >= 0) {
-			ccz = (regionZ * 16 + centerZ - 8) * 16 + 8;
+		if (region >= 0) {
+			return (region * 16 + center - 8) * 16 + 8;
 		} else {
-			ccz = (regionZ * 16 + (16 - centerZ) - 8) * 16 + 9;
+			return (region * 16 + (16 - center) - 8) * 16 + 9;
 		}
-
-		int ccx;
-		if (regionX >= 0) {
-			ccx = (regionX * 16 + centerX - 8) * 16 + 8;
-		} else {
-			ccx = (regionX * 16 + (16 - centerX) - 8) * 16 + 9;
-		}
-
-		return new BlockPos(ccx, TFGenerationSettings.SEALEVEL, ccz);//  Math.abs(chunkX % 16) == centerX && Math.abs(chunkZ % 16) == centerZ; FIXME (set sea level hard)
 	}
 
 	public List<MobSpawnSettings.SpawnerData> getCombinedMonsterSpawnableList() {
@@ -840,6 +935,33 @@ public class TFFeature {
 		return new ArrayList<>();
 	}
 
+	/**
+	 * Same as {@link #getSpawnableList}, but as a table that is only built once
+	 */
+	public WeightedRandomList<MobSpawnSettings.SpawnerData> getSpawnTable(MobCategory creatureType) {
+		return switch (creatureType) {
+			case MONSTER -> this.getMonsterSpawnTable(0);
+			case AMBIENT -> this.ambientSpawnTable != null ? this.ambientSpawnTable : (this.ambientSpawnTable = WeightedRandomList.create(this.ambientCreatureList));
+			case WATER_CREATURE -> this.waterSpawnTable != null ? this.waterSpawnTable : (this.waterSpawnTable = WeightedRandomList.create(this.waterCreatureList));
+			default -> NO_SPAWNS;
+		};
+	}
+
+	/**
+	 * Same as {@link #getSpawnableMonsterList}, but as a table that is only built once
+	 */
+	public WeightedRandomList<MobSpawnSettings.SpawnerData> getMonsterSpawnTable(int index) {
+		List<WeightedRandomList<MobSpawnSettings.SpawnerData>> tables = this.monsterSpawnTables;
+		if (tables == null) {
+			// lists can have gaps from addMonster, those just end up empty
+			tables = new ArrayList<>(this.spawnableMonsterLists.size());
+			for (List<MobSpawnSettings.SpawnerData> list : this.spawnableMonsterLists)
+				tables.add(list != null ? WeightedRandomList.create(list) : NO_SPAWNS);
+			this.monsterSpawnTables = tables;
+		}
+		return index >= 0 && index < tables.size() ? tables.get(index) : NO_SPAWNS;
+	}
+
 	public boolean doesPlayerHaveRequiredAdvancements(Player player) {
 		return PlayerHelper.doesPlayerHaveRequiredAdvancements(player, requiredAdvancements);
 	}
@@ -0,0 +1,124 @@
+package twilightforest.world.registration;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ByteMap;
+import it.unimi.dsi.fastutil.objects.Object2ByteOpenHashMap;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.saveddata.SavedData;
+import twilightforest.TwilightForestMod;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which {@link TFFeature} each 16x16 chunk feature region of a dimension holds, so lookups don't have to
+ * resample the biome at the region center every time. Stored with the dimension, one byte per region.
+ * <p>
+ * Only the most recently used regions are kept; anything evicted is simply worked out again on the next lookup.
+ */
+public class TFFeatureIndex extends SavedData {
+	private static final String DATA_NAME = TwilightForestMod.ID + "_feature_index";
+	// A region is 256x256 blocks, so this covers well beyond what a server explores between restarts
+	private static final int MAX_REGIONS = 16384;
+	private static final byte MISSING = -1;
+
+	private final Long2ByteLinkedOpenHashMap regions = new Long2ByteLinkedOpenHashMap();
+	private final List<TFFeature> palette = new ArrayList<>();
+	private final Object2ByteMap<TFFeature> paletteIds = new Object2ByteOpenHashMap<>();
+
+	public TFFeatureIndex() {
+		this.regions.defaultReturnValue(MISSING);
+		this.paletteIds.defaultReturnValue(MISSING);
+	}
+
+	public static TFFeatureIndex get(ServerLevel level) {
+		return level.getDataStorage().computeIfAbsent(TFFeatureIndex::load, TFFeatureIndex::new, DATA_NAME);
+	}
+
+	/**
+	 * @param featureX chunk X of the region center, as rounded by {@link TFFeature#generateFeature(int, int, net.minecraft.world.level.WorldGenLevel)}
+	 * @param featureZ chunk Z of the region center
+	 */
+	public TFFeature getOrGenerate(int featureX, int featureZ, Supplier<TFFeature> generator) {
+		long key = ChunkPos.asLong(featureX >> 4, featureZ >> 4);
+		synchronized (this.regions) {
+			byte id = this.regions.getAndMoveToLast(key);
+			if (id != MISSING) {
+				return this.palette.get(id);
+			}
+		}
+
+		// Worked out outside the lock, two threads racing on the same region will just agree on the answer
+		TFFeature feature = generator.get();
+		synchronized (this.regions) {
+			this.regions.putAndMoveToLast(key, this.getPaletteId(feature));
+			if (this.regions.size() > MAX_REGIONS) {
+				this.regions.removeFirstByte();
+			}
+		}
+		this.setDirty();
+		return feature;
+	}
+
+	/**
+	 * @return the feature already known for the region, or null if it hasn't been worked out yet
+	 */
+	@Nullable
+	public TFFeature get(int featureX, int featureZ) {
+		synchronized (this.regions) {
+			byte id = this.regions.get(ChunkPos.asLong(featureX >> 4, featureZ >> 4));
+			return id != MISSING ? this.palette.get(id) : null;
+		}
+	}
+
+	private byte getPaletteId(TFFeature feature) {
+		byte id = this.paletteIds.getByte(feature);
+		if (id == MISSING) {
+			id = (byte) this.palette.size();
+			this.palette.add(feature);
+			this.paletteIds.put(feature, id);
+		}
+		return id;
+	}
+
+	public static TFFeatureIndex load(CompoundTag tag) {
+		TFFeatureIndex index = new TFFeatureIndex();
+		ListTag paletteTag = tag.getList("palette", Tag.TAG_STRING);
+		byte[] remapped = new byte[paletteTag.size()];
+		for (int i = 0; i < paletteTag.size(); i++) {
+			TFFeature feature = TFFeature.getFeatureByName(paletteTag.getString(i));
+			remapped[i] = feature != null ? index.getPaletteId(feature) : MISSING;
+		}
+
+		long[] regions = tag.getLongArray("regions");
+		byte[] features = tag.getByteArray("features");
+		for (int i = 0; i < Math.min(regions.length, features.length); i++) {
+			int id = features[i];
+			if (id >= 0 && id < remapped.length && remapped[id] != MISSING) {
+				index.regions.putAndMoveToLast(regions[i], remapped[id]);
+			}
+		}
+		return index;
+	}
+
+	@Override
+	public CompoundTag save(CompoundTag tag) {
+		synchronized (this.regions) {
+			ListTag paletteTag = new ListTag();
+			for (TFFeature feature : this.palette) {
+				paletteTag.add(StringTag.valueOf(feature.name));
+			}
+			tag.put("palette", paletteTag);
+			tag.putLongArray("regions", this.regions.keySet().toLongArray());
+			tag.putByteArray("features", this.regions.values().toByteArray());
+		}
+		return tag;
+	}
+}
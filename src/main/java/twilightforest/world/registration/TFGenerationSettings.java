@@ -186,6 +186,7 @@ public class TFGenerationSettings /*extends GenerationSettings*/ {
 			locateTFStructureInRange((ServerLevel) world, feature, pos, 0).ifPresent(start -> {
 				if (start instanceof TFStructureStart<?> s)
 					s.setConquered(true);
+				ProtectedAreaCache.invalidate(start.getBoundingBox());
 			});
 		}
 	}
@@ -202,6 +203,10 @@ public class TFGenerationSettings /*extends GenerationSettings*/ {
 		int cz1 = Mth.floor((pos.getZ() - range) >> 4);
 		int cz2 = Mth.ceil((pos.getZ() + range) >> 4);
 
+		// Loaded levels keep an index of their structure starts, no need to go through the chunk source
+		if (world instanceof ServerLevel level && level.getChunkSource().getGenerator() instanceof ChunkGeneratorTwilight generator)
+			return generator.getStructureIndex().locate(featureCheck, cx1, cz1, cx2, cz2);
+
 		for (ConfiguredStructureFeature<?, ?> structureFeature : BuiltinRegistries.CONFIGURED_STRUCTURE_FEATURE.stream().toList()) {
 			if (!(structureFeature.feature instanceof LegacyStructureFeature legacyData))
 				continue;
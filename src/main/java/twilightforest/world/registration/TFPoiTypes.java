@@ -0,0 +1,17 @@
+package twilightforest.world.registration;
+
+import com.google.common.collect.ImmutableSet;
+import net.minecraft.world.entity.ai.village.poi.PoiType;
+import net.minecraftforge.registries.DeferredRegister;
+import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.RegistryObject;
+import twilightforest.TwilightForestMod;
+import twilightforest.block.TFBlocks;
+
+public class TFPoiTypes {
+
+	public static final DeferredRegister<PoiType> POI_TYPES = DeferredRegister.create(ForgeRegistries.POI_TYPES, TwilightForestMod.ID);
+
+	// Lets the level keep track of portal blocks for us, the same way it does for nether portals
+	public static final RegistryObject<PoiType> TWILIGHT_PORTAL = POI_TYPES.register("twilight_portal", () -> new PoiType("twilight_portal", ImmutableSet.copyOf(TFBlocks.TWILIGHT_PORTAL.get().getStateDefinition().getPossibleStates()), 0, 1));
+}
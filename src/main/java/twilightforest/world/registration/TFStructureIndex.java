@@ -0,0 +1,94 @@
+package twilightforest.world.registration;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import twilightforest.world.components.structures.start.LegacyStructureFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps track of the Twilight structure starts held by the loaded chunks of a level, bucketed by every chunk their
+ * bounding box covers. This answers the same question as walking the structure references of each chunk, without
+ * touching the chunk source at all.
+ * <p>
+ * Starts live in the chunk they originate from, so they come and go with that chunk (see {@link TFDimensions}).
+ * Only meant to be used from the server thread.
+ */
+public class TFStructureIndex {
+	private final Long2ObjectMap<List<StructureStart>> byChunk = new Long2ObjectOpenHashMap<>();
+	private final Long2ObjectMap<List<StructureStart>> byOrigin = new Long2ObjectOpenHashMap<>();
+
+	public void addChunk(ChunkAccess chunk) {
+		long origin = chunk.getPos().toLong();
+		this.removeChunk(origin);
+
+		List<StructureStart> starts = null;
+		for (StructureStart start : chunk.getAllStarts().values()) {
+			if (!start.isValid() || !(start.getFeature().feature instanceof LegacyStructureFeature))
+				continue;
+
+			if (starts == null)
+				starts = new ArrayList<>(1);
+			starts.add(start);
+
+			BoundingBox box = start.getBoundingBox();
+			for (int x = box.minX() >> 4; x <= box.maxX() >> 4; x++) {
+				for (int z = box.minZ() >> 4; z <= box.maxZ() >> 4; z++) {
+					this.byChunk.computeIfAbsent(ChunkPos.asLong(x, z), key -> new ArrayList<>(1)).add(start);
+				}
+			}
+		}
+
+		if (starts != null)
+			this.byOrigin.put(origin, starts);
+	}
+
+	public void removeChunk(long origin) {
+		List<StructureStart> starts = this.byOrigin.remove(origin);
+		if (starts == null)
+			return;
+
+		for (StructureStart start : starts) {
+			BoundingBox box = start.getBoundingBox();
+			for (int x = box.minX() >> 4; x <= box.maxX() >> 4; x++) {
+				for (int z = box.minZ() >> 4; z <= box.maxZ() >> 4; z++) {
+					long key = ChunkPos.asLong(x, z);
+					List<StructureStart> covering = this.byChunk.get(key);
+					if (covering != null && covering.remove(start) && covering.isEmpty()) {
+						this.byChunk.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the first start of the given feature whose bounding box covers any chunk between the corners, inclusive.
+	 */
+	public Optional<StructureStart> locate(TFFeature feature, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+		for (int x = minChunkX; x <= maxChunkX; x++) {
+			for (int z = minChunkZ; z <= maxChunkZ; z++) {
+				List<StructureStart> covering = this.byChunk.get(ChunkPos.asLong(x, z));
+				if (covering == null)
+					continue;
+
+				for (StructureStart start : covering) {
+					if (start.getFeature().feature instanceof LegacyStructureFeature legacyData && legacyData.feature == feature && start.isValid())
+						return Optional.of(start);
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+	public void clear() {
+		this.byChunk.clear();
+		this.byOrigin.clear();
+	}
+}